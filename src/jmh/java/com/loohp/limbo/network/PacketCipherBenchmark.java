@@ -0,0 +1,126 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.loohp.limbo.network.protocol.packets.PacketBuffer;
+import com.loohp.limbo.network.protocol.packets.PacketOut;
+import com.loohp.limbo.utils.DataTypeIO;
+
+/**
+ * Writes chunk-sized packets through a {@link Channel} into the socket output path,
+ * with and without the AES/CFB8 stream cipher enabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketCipherBenchmark {
+
+    @Param({"16384", "131072"})
+    public int payloadSize;
+
+    @Param({"-1", "256"})
+    public int compressionThreshold;
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    private Channel channel;
+    private PacketOut packet;
+
+    @Setup
+    public void setup() throws Exception {
+        QueuedOutputStream output = new QueuedOutputStream(new DiscardingOutputStream(), new OutboundQueue(Long.MAX_VALUE, Long.MAX_VALUE), Runnable::run);
+        if (encrypted) {
+            byte[] secret = new byte[16];
+            new Random(16).nextBytes(secret);
+            output.setEncryption(PacketCipher.encryption(new SecretKeySpec(secret, "AES")));
+        }
+        channel = new Channel(new DataInputStream(new ByteArrayInputStream(new byte[0])), new DataOutputStream(output), new NetworkStatistics());
+        channel.setCompressionThreshold(compressionThreshold);
+
+        byte[] payload = new byte[payloadSize];
+        Random random = new Random(payloadSize);
+        for (int i = 0; i < payload.length; i += 2) {
+            payload[i] = (byte) random.nextInt(8);
+        }
+        packet = new ChunkPayloadPacketOut(payload);
+    }
+
+    @Benchmark
+    public void writePacket() throws IOException {
+        channel.writePacket(packet);
+        channel.flush();
+    }
+
+    private static class ChunkPayloadPacketOut extends PacketOut {
+
+        private final byte[] payload;
+
+        private ChunkPayloadPacketOut(byte[] payload) {
+            this.payload = payload;
+        }
+
+        @Override
+        public void serialize(PacketBuffer output) throws IOException {
+            DataTypeIO.writeVarInt(output, 0x21);
+            output.write(payload);
+        }
+
+    }
+
+    private static class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decodes a movement packet through the three ways the server has resolved
+ * packet constructors: a constructor lookup per packet (the original handler),
+ * a cached reflective constructor, and the generated {@link PacketDecoder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketDecoderBenchmark {
+	
+	private static final Class<? extends PacketIn> PACKET_TYPE = PacketPlayInPositionAndLook.class;
+	
+	private ByteArrayInputStream bytes;
+	private DataInputStream input;
+	private int size;
+	private Constructor<?> constructor;
+	private PacketDecoder decoder;
+	
+	@Setup
+	public void setup() throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(buffer);
+		output.writeDouble(12.5);
+		output.writeDouble(64.0);
+		output.writeDouble(-3.25);
+		output.writeFloat(90.0F);
+		output.writeFloat(-10.0F);
+		output.writeBoolean(true);
+		size = buffer.size();
+		bytes = new ByteArrayInputStream(buffer.toByteArray());
+		input = new DataInputStream(bytes);
+		constructor = findConstructor(PACKET_TYPE);
+		decoder = PacketDecoder.create(PACKET_TYPE);
+	}
+	
+	@Benchmark
+	public PacketIn reflectiveLookup() throws Exception {
+		bytes.reset();
+		return (PacketIn) findConstructor(PACKET_TYPE).newInstance(input);
+	}
+	
+	@Benchmark
+	public PacketIn reflectiveCached() throws Exception {
+		bytes.reset();
+		return (PacketIn) constructor.newInstance(input);
+	}
+	
+	@Benchmark
+	public PacketIn generated() throws IOException {
+		bytes.reset();
+		return decoder.decode(input, size, 0);
+	}
+	
+	private static Constructor<?> findConstructor(Class<? extends PacketIn> packetType) {
+		return Stream.of(packetType.getConstructors()).filter(each -> each.getParameterCount() == 1 && each.getParameterTypes()[0].equals(DataInputStream.class)).findFirst().get();
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.world;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.querz.nbt.tag.CompoundTag;
+
+/**
+ * Compares relighting a world from scratch, which is what every light update used to
+ * cost, with the incremental BFS update {@link World#setBlock(int, int, int, BlockState)}
+ * runs when a single light source is placed or removed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LightEngineBenchmark {
+	
+	private static final int LIGHT_SOURCES = 64;
+	
+	@Param({"64", "256"})
+	public int worldSize;
+	
+	private World world;
+	private BlockState air;
+	private BlockState glowstone;
+	private int toggleX;
+	private int toggleY;
+	private int toggleZ;
+	private boolean lit;
+	
+	@Setup
+	public void setup() {
+		world = new World("benchmark", worldSize, worldSize, Environment.NORMAL);
+		air = block("minecraft:air");
+		glowstone = block("minecraft:glowstone");
+		BlockState stone = block("minecraft:stone");
+		Random random = new Random(worldSize);
+		for (int i = 0; i < LIGHT_SOURCES; i++) {
+			world.setBlock(random.nextInt(worldSize), 1 + random.nextInt(100), random.nextInt(worldSize), glowstone);
+			world.setBlock(random.nextInt(worldSize), 1 + random.nextInt(100), random.nextInt(worldSize), stone);
+		}
+		toggleX = worldSize / 2;
+		toggleY = 40;
+		toggleZ = worldSize / 2;
+		lit = false;
+	}
+	
+	@Benchmark
+	public void fullRelight() {
+		world.getLightEngineBlock().updateWorld();
+		world.getLightEngineSky().updateWorld();
+	}
+	
+	@Benchmark
+	public void incrementalRelight() {
+		lit = !lit;
+		world.setBlock(toggleX, toggleY, toggleZ, lit ? glowstone : air);
+	}
+	
+	private static BlockState block(String type) {
+		CompoundTag tag = new CompoundTag();
+		tag.putString("Name", type);
+		return new BlockState(tag);
+	}
+
+}
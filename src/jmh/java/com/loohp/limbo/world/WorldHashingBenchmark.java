@@ -0,0 +1,158 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.world;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.querz.mca.Chunk;
+
+/**
+ * Builds every player's chunk view map once, the work the old per-tick view update
+ * did, keyed three ways: positions hashed by the world's chunk array (the old
+ * {@code Arrays.deepHashCode} world hash), positions hashed by world identity, and
+ * packed {@code long} chunk keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldHashingBenchmark {
+	
+	private static final int VIEW_DISTANCE = 8;
+	
+	@Param({"64", "256", "512"})
+	public int worldSize;
+	
+	@Param({"1", "20", "100"})
+	public int players;
+	
+	private World world;
+	private int[] playerChunkX;
+	private int[] playerChunkZ;
+	
+	@Setup
+	public void setup() {
+		world = new World("benchmark", worldSize, worldSize, Environment.NORMAL);
+		Random random = new Random(worldSize * 31L + players);
+		playerChunkX = new int[players];
+		playerChunkZ = new int[players];
+		for (int i = 0; i < players; i++) {
+			playerChunkX[i] = random.nextInt(world.getChunkWidth());
+			playerChunkZ[i] = random.nextInt(world.getChunkLength());
+		}
+	}
+	
+	@Benchmark
+	public int deepHashedPositions() {
+		int size = 0;
+		for (int i = 0; i < players; i++) {
+			Map<DeepHashedChunkPosition, Chunk> view = new HashMap<>();
+			for (int x = playerChunkX[i] - VIEW_DISTANCE; x <= playerChunkX[i] + VIEW_DISTANCE; x++) {
+				for (int z = playerChunkZ[i] - VIEW_DISTANCE; z <= playerChunkZ[i] + VIEW_DISTANCE; z++) {
+					view.put(new DeepHashedChunkPosition(world, x, z), world.getChunkAt(x, z));
+				}
+			}
+			size += view.size();
+		}
+		return size;
+	}
+	
+	@Benchmark
+	public int identityHashedPositions() {
+		int size = 0;
+		for (int i = 0; i < players; i++) {
+			Map<ChunkPosition, Chunk> view = new HashMap<>();
+			for (int x = playerChunkX[i] - VIEW_DISTANCE; x <= playerChunkX[i] + VIEW_DISTANCE; x++) {
+				for (int z = playerChunkZ[i] - VIEW_DISTANCE; z <= playerChunkZ[i] + VIEW_DISTANCE; z++) {
+					view.put(new ChunkPosition(world, x, z), world.getChunkAt(x, z));
+				}
+			}
+			size += view.size();
+		}
+		return size;
+	}
+	
+	@Benchmark
+	public int packedChunkKeys() {
+		int size = 0;
+		for (int i = 0; i < players; i++) {
+			Map<Long, Chunk> view = new HashMap<>();
+			for (int x = playerChunkX[i] - VIEW_DISTANCE; x <= playerChunkX[i] + VIEW_DISTANCE; x++) {
+				for (int z = playerChunkZ[i] - VIEW_DISTANCE; z <= playerChunkZ[i] + VIEW_DISTANCE; z++) {
+					view.put(ChunkPosition.toLong(x, z), world.getChunkAt(x, z));
+				}
+			}
+			size += view.size();
+		}
+		return size;
+	}
+	
+	private static class DeepHashedChunkPosition {
+		
+		private final World world;
+		private final int x;
+		private final int z;
+		
+		private DeepHashedChunkPosition(World world, int x, int z) {
+			this.world = world;
+			this.x = x;
+			this.z = z;
+		}
+		
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + Arrays.deepHashCode(world.getChunks());
+			result = prime * result + x;
+			result = prime * result + z;
+			return result;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof DeepHashedChunkPosition)) {
+				return false;
+			}
+			DeepHashedChunkPosition other = (DeepHashedChunkPosition) obj;
+			return x == other.x && z == other.z && Arrays.deepEquals(world.getChunks(), other.world.getChunks());
+		}
+		
+	}
+
+}
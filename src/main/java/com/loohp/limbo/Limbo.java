@@ -66,6 +66,7 @@ import com.loohp.limbo.network.ServerConnection;
 import com.loohp.limbo.network.protocol.packets.Packet;
 import com.loohp.limbo.network.protocol.packets.PacketIn;
 import com.loohp.limbo.network.protocol.packets.PacketOut;
+import com.loohp.limbo.network.protocol.packets.PacketRegistry;
 import com.loohp.limbo.permissions.PermissionsManager;
 import com.loohp.limbo.player.Player;
 import com.loohp.limbo.plugins.LimboPlugin;
@@ -146,6 +147,9 @@ public class Limbo {
 	
 	private ServerProperties properties;
 	
+	private BufferedImage encodedFavicon;
+	private String encodedFaviconBase64;
+	
 	private PluginManager pluginManager;
 	private EventsManager eventsManager;
 	private PermissionsManager permissionManager;
@@ -221,65 +225,53 @@ public class Limbo {
         reader.close();
         
         String classPrefix = Packet.class.getName().substring(0, Packet.class.getName().lastIndexOf(".") + 1);
-        int mappingsCount = 0;
         
 		Map<Integer, Class<? extends PacketIn>> HandshakeIn = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("HandshakeIn")).keySet()) {
 			int packetId = Integer.decode((String) key);
 			HandshakeIn.put(packetId, (Class<? extends PacketIn>) Class.forName(classPrefix + (String) ((JSONObject) json.get("HandshakeIn")).get(key)));
 		}
-		Packet.setHandshakeIn(HandshakeIn);
-		mappingsCount += HandshakeIn.size();
 		
 		Map<Integer, Class<? extends PacketIn>> StatusIn = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("StatusIn")).keySet()) {
 			int packetId = Integer.decode((String) key);
 			StatusIn.put(packetId, (Class<? extends PacketIn>) Class.forName(classPrefix + (String) ((JSONObject) json.get("StatusIn")).get(key)));
 		}
-		Packet.setStatusIn(StatusIn);
-		mappingsCount += StatusIn.size();
 		
 		Map<Class<? extends PacketOut>, Integer> StatusOut = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("StatusOut")).keySet()) {
 			Class<? extends PacketOut> packetClass = (Class<? extends PacketOut>) Class.forName(classPrefix + (String) key);
 			StatusOut.put(packetClass, Integer.decode((String) ((JSONObject) json.get("StatusOut")).get(key)));
 		}
-		Packet.setStatusOut(StatusOut);
-		mappingsCount += StatusOut.size();
 		
 		Map<Integer, Class<? extends PacketIn>> LoginIn = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("LoginIn")).keySet()) {
 			int packetId = Integer.decode((String) key);
 			LoginIn.put(packetId, (Class<? extends PacketIn>) Class.forName(classPrefix + (String) ((JSONObject) json.get("LoginIn")).get(key)));
 		}
-		Packet.setLoginIn(LoginIn);
-		mappingsCount += LoginIn.size();
 		
 		Map<Class<? extends PacketOut>, Integer> LoginOut = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("LoginOut")).keySet()) {
 			Class<? extends PacketOut> packetClass = (Class<? extends PacketOut>) Class.forName(classPrefix + (String) key);
 			LoginOut.put(packetClass, Integer.decode((String) ((JSONObject) json.get("LoginOut")).get(key)));
 		}
-		Packet.setLoginOut(LoginOut);
-		mappingsCount += LoginOut.size();
 		
 		Map<Integer, Class<? extends PacketIn>> PlayIn = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("PlayIn")).keySet()) {
 			int packetId = Integer.decode((String) key);
 			PlayIn.put(packetId, (Class<? extends PacketIn>) Class.forName(classPrefix + (String) ((JSONObject) json.get("PlayIn")).get(key)));
 		}
-		Packet.setPlayIn(PlayIn);
-		mappingsCount += PlayIn.size();
 		
 		Map<Class<? extends PacketOut>, Integer> PlayOut = new HashMap<>();
 		for (Object key : ((JSONObject) json.get("PlayOut")).keySet()) {
 			Class<? extends PacketOut> packetClass = (Class<? extends PacketOut>) Class.forName(classPrefix + (String) key);
 			PlayOut.put(packetClass, Integer.decode((String) ((JSONObject) json.get("PlayOut")).get(key)));
 		}
-		Packet.setPlayOut(PlayOut);
-		mappingsCount += PlayOut.size();
 		
-		console.sendMessage("Loaded all " + mappingsCount + " packet id mappings!");
+		PacketRegistry packetRegistry = new PacketRegistry(HandshakeIn, StatusIn, StatusOut, LoginIn, LoginOut, PlayIn, PlayOut);
+		Packet.setRegistry(packetRegistry);
+		
+		console.sendMessage("Loaded all " + packetRegistry.size() + " packet id mappings!");
 		
 		dimensionRegistry = new DimensionRegistry();
 		
@@ -449,6 +441,10 @@ public class Limbo {
 		return new HashSet<>(playersByUUID.values());
 	}
 	
+	public int getPlayerCount() {
+		return playersByUUID.size();
+	}
+	
 	public Player getPlayer(String name) {
 		return playersByName.get(name);
 	}
@@ -498,8 +494,7 @@ public class Limbo {
 		
 		if (favicon != null) {
 			if (favicon.getWidth() == 64 && favicon.getHeight() == 64) {
-				String base64 = "data:image/png;base64," + ImageUtils.imgToBase64String(favicon, "png");
-				json.put("favicon", base64);
+				json.put("favicon", encodeFavicon(favicon));
 			} else {
 				console.sendMessage("Server List Favicon must be 64 x 64 in size!");
 			}
@@ -519,6 +514,14 @@ public class Limbo {
     	return g.toJson(treeMap).replace("\"%MOTD%\"", GsonComponentSerializer.gson().serialize(motd));
 	}
 	
+	private synchronized String encodeFavicon(BufferedImage favicon) throws IOException {
+		if (encodedFavicon != favicon) {
+			encodedFaviconBase64 = "data:image/png;base64," + ImageUtils.imgToBase64String(favicon, "png");
+			encodedFavicon = favicon;
+		}
+		return encodedFaviconBase64;
+	}
+	
 	public String buildLegacyPingResponse(String version, Component motd, int maxPlayers, int playersOnline) {
 		String begin = "�1";
 		return String.join("\00", begin, "127", version, String.join("", Arrays.asList(motd).stream().map(each -> LegacyComponentSerializer.legacySection().serialize(each)).collect(Collectors.toList())), String.valueOf(playersOnline), String.valueOf(maxPlayers));
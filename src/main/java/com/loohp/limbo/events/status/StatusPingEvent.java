@@ -35,6 +35,7 @@ public class StatusPingEvent extends Event {
 	private int maxPlayers;
 	private int playersOnline;
 	private BufferedImage favicon;
+	private boolean dynamic;
 
 	public StatusPingEvent(ClientConnection connection, String version, int protocol, Component motd, int maxPlayers, int playersOnline, BufferedImage favicon) {
 		this.connection = connection;
@@ -44,6 +45,7 @@ public class StatusPingEvent extends Event {
 		this.maxPlayers = maxPlayers;
 		this.playersOnline = playersOnline;
 		this.favicon = favicon;
+		this.dynamic = false;
 	}
 	
 	public ClientConnection getConnection() {
@@ -98,4 +100,12 @@ public class StatusPingEvent extends Event {
 		this.favicon = favicon;
 	}
 
+	public boolean isDynamic() {
+		return dynamic;
+	}
+
+	public void setDynamic(boolean dynamic) {
+		this.dynamic = dynamic;
+	}
+
 }
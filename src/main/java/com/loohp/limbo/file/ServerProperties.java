@@ -68,10 +68,38 @@ public class ServerProperties {
 	private boolean bungeecord;
 	private boolean velocityModern;
 	private boolean bungeeGuard;
+	private boolean onlineMode;
 	private List<String> forwardingSecrets;
 	private int viewDistance;
 	private double ticksPerSecond;
 	private boolean handshakeVerbose;
+	private String networkTransport;
+	private int networkEventLoopThreads;
+	private boolean networkVirtualThreads;
+	private long networkKeepAliveInterval;
+	private long networkKeepAliveTimeout;
+	private int networkCompressionThreshold;
+	private boolean networkWriteBatching;
+	private int networkOutboundHighWatermark;
+	private int networkOutboundLowWatermark;
+	private String networkOutboundPolicy;
+	private long networkOutboundTimeout;
+	private int networkOutboundMaxBytes;
+	private int networkOutboundThreads;
+	private int networkAcceptBacklog;
+	private int networkHandshakesPerMinute;
+	private int networkStatusPingsPerMinute;
+	private int networkLoginsPerMinute;
+	private int networkMaxConcurrentLogins;
+	private boolean networkMovementCoalescing;
+	private boolean networkProxyProtocol;
+	private List<String> networkProxyProtocolTrusted;
+	private List<String> networkListeners;
+	private int networkAcceptThreads;
+	private long networkHandshakeTimeout;
+	private long networkStatusTimeout;
+	private long networkLoginTimeout;
+	private long networkPlayIdleTimeout;
 	
 	private String resourcePackSHA1;
 	private String resourcePackLink;
@@ -151,10 +179,44 @@ public class ServerProperties {
 				bungeeGuard = false;
 			}
 		}
+		onlineMode = Boolean.parseBoolean(prop.getProperty("online-mode"));
+		if (onlineMode && (bungeecord || velocityModern || bungeeGuard)) {
+			Limbo.getInstance().getConsole().sendMessage("Online mode is enabled but so is proxy forwarding, We will automatically disable online mode because the proxy authenticates players");
+			onlineMode = false;
+		}
 
 		viewDistance = Integer.parseInt(prop.getProperty("view-distance"));
 		ticksPerSecond = Double.parseDouble(prop.getProperty("ticks-per-second"));
 		handshakeVerbose = Boolean.parseBoolean(prop.getProperty("handshake-verbose"));
+		networkTransport = prop.getProperty("network-transport");
+		networkEventLoopThreads = Integer.parseInt(prop.getProperty("network-event-loop-threads"));
+		networkVirtualThreads = Boolean.parseBoolean(prop.getProperty("network-virtual-threads"));
+		networkKeepAliveInterval = Long.parseLong(prop.getProperty("network-keep-alive-interval"));
+		networkKeepAliveTimeout = Long.parseLong(prop.getProperty("network-keep-alive-timeout"));
+		networkCompressionThreshold = Integer.parseInt(prop.getProperty("network-compression-threshold"));
+		networkWriteBatching = Boolean.parseBoolean(prop.getProperty("network-write-batching"));
+		networkOutboundHighWatermark = Integer.parseInt(prop.getProperty("network-outbound-high-watermark"));
+		networkOutboundLowWatermark = Integer.parseInt(prop.getProperty("network-outbound-low-watermark"));
+		networkOutboundPolicy = prop.getProperty("network-outbound-policy");
+		networkOutboundTimeout = Long.parseLong(prop.getProperty("network-outbound-timeout"));
+		networkOutboundMaxBytes = Integer.parseInt(prop.getProperty("network-outbound-max-bytes"));
+		networkOutboundThreads = Integer.parseInt(prop.getProperty("network-outbound-threads"));
+		networkAcceptBacklog = Integer.parseInt(prop.getProperty("network-accept-backlog"));
+		networkHandshakesPerMinute = Integer.parseInt(prop.getProperty("network-handshakes-per-minute"));
+		networkStatusPingsPerMinute = Integer.parseInt(prop.getProperty("network-status-pings-per-minute"));
+		networkLoginsPerMinute = Integer.parseInt(prop.getProperty("network-logins-per-minute"));
+		networkMaxConcurrentLogins = Integer.parseInt(prop.getProperty("network-max-concurrent-logins"));
+		networkMovementCoalescing = Boolean.parseBoolean(prop.getProperty("network-movement-coalescing"));
+		networkProxyProtocol = Boolean.parseBoolean(prop.getProperty("network-proxy-protocol"));
+		String networkProxyProtocolTrustedStr = prop.getProperty("network-proxy-protocol-trusted");
+		networkProxyProtocolTrusted = networkProxyProtocolTrustedStr == null || networkProxyProtocolTrustedStr.equals("") ? Lists.newArrayList() : Lists.newArrayList(networkProxyProtocolTrustedStr.split(";"));
+		String networkListenersStr = prop.getProperty("network-listeners");
+		networkListeners = networkListenersStr == null || networkListenersStr.equals("") ? Lists.newArrayList() : Lists.newArrayList(networkListenersStr.split(";"));
+		networkAcceptThreads = Integer.parseInt(prop.getProperty("network-accept-threads"));
+		networkHandshakeTimeout = Long.parseLong(prop.getProperty("network-handshake-timeout"));
+		networkStatusTimeout = Long.parseLong(prop.getProperty("network-status-timeout"));
+		networkLoginTimeout = Long.parseLong(prop.getProperty("network-login-timeout"));
+		networkPlayIdleTimeout = Long.parseLong(prop.getProperty("network-play-idle-timeout"));
 
 		resourcePackLink = prop.getProperty("resource-pack");
 		resourcePackSHA1 = prop.getProperty("resource-pack-sha1");
@@ -207,6 +269,10 @@ public class ServerProperties {
 		return bungeeGuard;
 	}
 
+	public boolean isOnlineMode() {
+		return onlineMode;
+	}
+
 	public List<String> getForwardingSecrets() {
 		return forwardingSecrets;
 	}
@@ -294,6 +360,114 @@ public class ServerProperties {
 	public boolean handshakeVerboseEnabled() {
 		return handshakeVerbose;
 	}
+
+	public String getNetworkTransport() {
+		return networkTransport;
+	}
+
+	public int getNetworkEventLoopThreads() {
+		return networkEventLoopThreads;
+	}
+
+	public boolean isNetworkVirtualThreads() {
+		return networkVirtualThreads;
+	}
+
+	public long getNetworkKeepAliveInterval() {
+		return networkKeepAliveInterval;
+	}
+
+	public long getNetworkKeepAliveTimeout() {
+		return networkKeepAliveTimeout;
+	}
+
+	public int getNetworkCompressionThreshold() {
+		return networkCompressionThreshold;
+	}
+
+	public boolean isNetworkWriteBatching() {
+		return networkWriteBatching;
+	}
+
+	public int getNetworkOutboundHighWatermark() {
+		return networkOutboundHighWatermark;
+	}
+
+	public int getNetworkOutboundLowWatermark() {
+		return networkOutboundLowWatermark;
+	}
+
+	public String getNetworkOutboundPolicy() {
+		return networkOutboundPolicy;
+	}
+
+	public long getNetworkOutboundTimeout() {
+		return networkOutboundTimeout;
+	}
+
+	public int getNetworkOutboundMaxBytes() {
+		return networkOutboundMaxBytes;
+	}
+
+	public int getNetworkOutboundThreads() {
+		return networkOutboundThreads;
+	}
+
+	public int getNetworkAcceptBacklog() {
+		return networkAcceptBacklog;
+	}
+
+	public int getNetworkHandshakesPerMinute() {
+		return networkHandshakesPerMinute;
+	}
+
+	public int getNetworkStatusPingsPerMinute() {
+		return networkStatusPingsPerMinute;
+	}
+
+	public int getNetworkLoginsPerMinute() {
+		return networkLoginsPerMinute;
+	}
+
+	public int getNetworkMaxConcurrentLogins() {
+		return networkMaxConcurrentLogins;
+	}
+
+	public boolean isNetworkMovementCoalescing() {
+		return networkMovementCoalescing;
+	}
+
+	public boolean isNetworkProxyProtocol() {
+		return networkProxyProtocol;
+	}
+
+	public List<String> getNetworkProxyProtocolTrusted() {
+		return networkProxyProtocolTrusted;
+	}
+
+	public List<String> getNetworkListeners() {
+		return networkListeners;
+	}
+
+	public int getNetworkAcceptThreads() {
+		return networkAcceptThreads;
+	}
+
+	public long getNetworkHandshakeTimeout() {
+		return networkHandshakeTimeout;
+	}
+
+	public long getNetworkStatusTimeout() {
+		return networkStatusTimeout;
+	}
+
+	public long getNetworkLoginTimeout() {
+		return networkLoginTimeout;
+	}
+
+	public long getNetworkPlayIdleTimeout() {
+		return networkPlayIdleTimeout;
+	}
 	
 	public String getResourcePackLink() {
 		return resourcePackLink;
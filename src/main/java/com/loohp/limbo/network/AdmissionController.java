@@ -0,0 +1,154 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AdmissionController {
+
+    private static final long REFILL_PERIOD = 60000;
+    private static final long SWEEP_INTERVAL = 60000;
+
+    private final RateLimiter handshakes;
+    private final RateLimiter statusPings;
+    private final RateLimiter logins;
+    private final int maxConcurrentLogins;
+    private final AtomicInteger concurrentLogins;
+    private final NetworkStatistics statistics;
+
+    public AdmissionController(int handshakesPerMinute, int statusPingsPerMinute, int loginsPerMinute, int maxConcurrentLogins, NetworkStatistics statistics) {
+        this.handshakes = new RateLimiter(handshakesPerMinute);
+        this.statusPings = new RateLimiter(statusPingsPerMinute);
+        this.logins = new RateLimiter(loginsPerMinute);
+        this.maxConcurrentLogins = maxConcurrentLogins;
+        this.concurrentLogins = new AtomicInteger();
+        this.statistics = statistics;
+    }
+
+    public boolean tryHandshake(InetAddress address) {
+        if (handshakes.tryAcquire(address)) {
+            return true;
+        }
+        statistics.recordRejectedHandshake();
+        return false;
+    }
+
+    public boolean tryStatusPing(InetAddress address) {
+        if (statusPings.tryAcquire(address)) {
+            return true;
+        }
+        statistics.recordRejectedStatusPing();
+        return false;
+    }
+
+    public boolean tryLogin(InetAddress address) {
+        if (!logins.tryAcquire(address)) {
+            statistics.recordRejectedLogin();
+            return false;
+        }
+        if (maxConcurrentLogins > 0 && concurrentLogins.incrementAndGet() > maxConcurrentLogins) {
+            concurrentLogins.decrementAndGet();
+            statistics.recordRejectedConcurrentLogin();
+            return false;
+        }
+        return true;
+    }
+
+    public void completeLogin() {
+        if (maxConcurrentLogins > 0) {
+            concurrentLogins.decrementAndGet();
+        }
+    }
+
+    public int getConcurrentLogins() {
+        return concurrentLogins.get();
+    }
+
+    public int getMaxConcurrentLogins() {
+        return maxConcurrentLogins;
+    }
+
+    private static class RateLimiter {
+
+        private final int permitsPerMinute;
+        private final Map<InetAddress, TokenBucket> buckets;
+        private final AtomicLong lastSweep;
+
+        private RateLimiter(int permitsPerMinute) {
+            this.permitsPerMinute = permitsPerMinute;
+            this.buckets = new ConcurrentHashMap<>();
+            this.lastSweep = new AtomicLong(System.currentTimeMillis());
+        }
+
+        private boolean tryAcquire(InetAddress address) {
+            if (permitsPerMinute <= 0 || address == null) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            long last = lastSweep.get();
+            if (now - last > SWEEP_INTERVAL && lastSweep.compareAndSet(last, now)) {
+                buckets.values().removeIf(bucket -> bucket.isIdle(now));
+            }
+            return buckets.computeIfAbsent(address, k -> new TokenBucket(permitsPerMinute, now)).tryAcquire(now);
+        }
+
+    }
+
+    private static class TokenBucket {
+
+        private final int capacity;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, long now) {
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        private synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private synchronized boolean isIdle(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * capacity / (double) REFILL_PERIOD);
+                lastRefill = now;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class BufferedFrameInputStream extends InputStream {
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+    private final int maxFrameSize;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private int frameEnd;
+    private PacketCipher decryption;
+
+    public BufferedFrameInputStream(InputStream input) {
+        this(input, Channel.MAX_FRAME_SIZE);
+    }
+
+    public BufferedFrameInputStream(InputStream input, int maxFrameSize) {
+        this.input = input;
+        this.maxFrameSize = maxFrameSize;
+        this.buffer = new byte[INITIAL_BUFFER_SIZE];
+        this.position = 0;
+        this.limit = 0;
+        this.frameEnd = -1;
+        this.decryption = null;
+    }
+
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    public boolean isInFrame() {
+        return frameEnd >= 0;
+    }
+
+    public int readVarInt() throws IOException {
+        if (frameEnd >= 0) {
+            throw new IllegalStateException("Previous frame has not been ended");
+        }
+        int result = 0;
+        for (int numRead = 0; numRead < 5; numRead++) {
+            if (position >= limit && !fill(1)) {
+                throw new EOFException();
+            }
+            byte read = buffer[position++];
+            result |= (read & 0b01111111) << (7 * numRead);
+            if ((read & 0b10000000) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("VarInt is too big");
+    }
+
+    protected void setDecryption(PacketCipher decryption) throws IOException {
+        int start = frameEnd >= 0 ? frameEnd : position;
+        decryption.process(buffer, start, limit - start);
+        this.decryption = decryption;
+    }
+
+    public void beginFrame(int size) throws IOException {
+        if (frameEnd >= 0) {
+            throw new IllegalStateException("Previous frame has not been ended");
+        }
+        if (size < 0 || size > maxFrameSize) {
+            throw new IOException("Bad packet length " + size + ", maximum is " + maxFrameSize);
+        }
+        if (limit - position < size && !fill(size)) {
+            throw new EOFException();
+        }
+        frameEnd = position + size;
+    }
+
+    public void endFrame() {
+        if (frameEnd >= 0) {
+            position = frameEnd;
+            frameEnd = -1;
+        }
+    }
+
+    private boolean fill(int required) throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (required > buffer.length) {
+            int capacity = buffer.length;
+            while (capacity < required) {
+                capacity <<= 1;
+            }
+            byte[] expanded = new byte[capacity];
+            System.arraycopy(buffer, 0, expanded, 0, limit);
+            buffer = expanded;
+        }
+        while (limit < required) {
+            int read = input.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            if (decryption != null) {
+                decryption.process(buffer, limit, read);
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private int end() {
+        return frameEnd >= 0 ? frameEnd : limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= end()) {
+            if (frameEnd >= 0 || !fill(1)) {
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= end()) {
+            if (frameEnd >= 0 || !fill(1)) {
+                return -1;
+            }
+        }
+        int read = Math.min(len, end() - position);
+        System.arraycopy(buffer, position, b, off, read);
+        position += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, end() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (frameEnd >= 0) {
+            return frameEnd - position;
+        }
+        return limit - position + input.available();
+    }
+
+}
@@ -19,36 +19,79 @@
 
 package com.loohp.limbo.network;
 
+import com.loohp.limbo.Limbo;
+import com.loohp.limbo.network.protocol.packets.CachedPacketOut;
+import com.loohp.limbo.network.protocol.packets.PacketBuffer;
 import com.loohp.limbo.network.protocol.packets.PacketIn;
 import com.loohp.limbo.network.protocol.packets.PacketOut;
 import com.loohp.limbo.utils.DataTypeIO;
 import com.loohp.limbo.utils.NamespacedKey;
 import com.loohp.limbo.utils.Pair;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class Channel implements AutoCloseable {
 
+    public static final int MAX_FRAME_SIZE = 2097151;
+    public static final int MAXIMUM_UNCOMPRESSED_SIZE = 8388608;
+
     private final List<Pair<NamespacedKey, ChannelPacketHandler>> handlers;
     private final AtomicBoolean valid;
     protected final DataInputStream input;
     protected final DataOutputStream output;
+    private final WritableByteChannel outputChannel;
+
+    private volatile boolean autoFlush;
+    private volatile int compressionThreshold;
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] deflateBuffer;
+    private ByteArrayOutputStream compressedOutput;
+    private final AtomicLong compressionInputBytes;
+    private final AtomicLong compressionOutputBytes;
+    private NetworkStatistics statistics;
 
     public Channel(DataInputStream input, DataOutputStream output) {
+        this(input, output, null);
+    }
+
+    protected Channel(DataInputStream input, DataOutputStream output, NetworkStatistics statistics) {
         this.input = input;
         this.output = output;
+        this.outputChannel = Channels.newChannel(output);
         this.handlers = new CopyOnWriteArrayList<>();
         this.valid = new AtomicBoolean(true);
+        this.autoFlush = true;
+        this.compressionThreshold = -1;
+        this.compressionInputBytes = new AtomicLong();
+        this.compressionOutputBytes = new AtomicLong();
+        this.statistics = statistics;
     }
 
-    private void ensureOpen() {
+    private NetworkStatistics getStatistics() {
+        if (statistics == null) {
+            statistics = Limbo.getInstance().getServerConnection().getStatistics();
+        }
+        return statistics;
+    }
+
+    private void ensureOpen() throws IOException {
         if (!valid.get()) {
-            throw new IllegalStateException("Channel already closed!");
+            throw new IOException("Channel already closed!");
         }
     }
 
@@ -64,30 +107,97 @@ public class Channel implements AutoCloseable {
         handlers.removeIf(each -> each.getFirst().equals(key));
     }
 
+    public boolean isAutoFlush() {
+        return autoFlush;
+    }
+
+    protected void setAutoFlush(boolean autoFlush) {
+        this.autoFlush = autoFlush;
+    }
+
+    protected void flush() throws IOException {
+        ensureOpen();
+        output.flush();
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionThreshold >= 0;
+    }
+
+    protected void setCompressionThreshold(int compressionThreshold) {
+        if (compressionThreshold >= 0 && deflater == null) {
+            this.deflater = new Deflater();
+            this.inflater = new Inflater();
+            this.deflateBuffer = new byte[8192];
+            this.compressedOutput = new ByteArrayOutputStream();
+        }
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public long getCompressionInputBytes() {
+        return compressionInputBytes.get();
+    }
+
+    public long getCompressionOutputBytes() {
+        return compressionOutputBytes.get();
+    }
+
+    public double getCompressionRatio() {
+        long inputBytes = compressionInputBytes.get();
+        return inputBytes == 0 ? 1.0 : (double) compressionOutputBytes.get() / (double) inputBytes;
+    }
+
     protected PacketIn readPacket() throws Exception {
         return readPacket(-1);
     }
 
     protected PacketIn readPacket(int size) throws IOException {
-        PacketIn packet = null;
+        PacketIn packet;
         do {
-            ensureOpen();
-            size = size < 0 ? DataTypeIO.readVarInt(input) : size;
-            int packetId = DataTypeIO.readVarInt(input);
-            ChannelPacketRead read = new ChannelPacketRead(size, packetId, input);
-            for (Pair<NamespacedKey, ChannelPacketHandler> pair : handlers) {
-                read = pair.getSecond().read(read);
-                if (read == null) {
-                    packet = null;
-                    break;
-                }
-                packet = read.getReadPacket();
-            }
+            packet = readPacketFrame(size);
             size = -1;
         } while (packet == null);
         return packet;
     }
 
+    protected PacketIn readPacketFrame(int size) throws IOException {
+        ensureOpen();
+        size = size < 0 ? DataTypeIO.readVarInt(input) : size;
+        if (size > MAX_FRAME_SIZE) {
+            throw new IOException("Bad packet length " + size + ", maximum is " + MAX_FRAME_SIZE);
+        }
+        DataInputStream packetInput = input;
+        if (compressionThreshold >= 0) {
+            int dataLength = DataTypeIO.readVarInt(input);
+            if (dataLength == 0) {
+                size -= 1;
+            } else {
+                if (dataLength > MAXIMUM_UNCOMPRESSED_SIZE) {
+                    throw new IOException("Badly compressed packet - size of " + dataLength + " is larger than protocol maximum of " + MAXIMUM_UNCOMPRESSED_SIZE);
+                }
+                byte[] compressed = new byte[size - DataTypeIO.getVarIntLength(dataLength)];
+                input.readFully(compressed);
+                packetInput = new DataInputStream(new ByteArrayInputStream(decompress(compressed, dataLength)));
+                size = dataLength;
+            }
+        }
+        int packetId = DataTypeIO.readVarInt(packetInput);
+        ChannelPacketRead read = new ChannelPacketRead(size, packetId, packetInput);
+        PacketIn packet = null;
+        for (Pair<NamespacedKey, ChannelPacketHandler> pair : handlers) {
+            read = pair.getSecond().read(read);
+            if (read == null) {
+                return null;
+            }
+            packet = read.getReadPacket();
+        }
+        return packet;
+    }
+
     protected boolean writePacket(PacketOut packet) throws IOException {
         ensureOpen();
         ChannelPacketWrite write = new ChannelPacketWrite(packet);
@@ -97,19 +207,120 @@ public class Channel implements AutoCloseable {
                 return false;
             }
         }
-        packet = write.getPacket();
-        byte[] packetByte = packet.serializePacket();
-        DataTypeIO.writeVarInt(output, packetByte.length);
-        output.write(packetByte);
-        output.flush();
+        packet = write.getWritePacket();
+        if (packet instanceof CachedPacketOut) {
+            writeCachedPacket((CachedPacketOut) packet);
+            return true;
+        }
+        PacketBuffer buffer = PacketBuffer.allocate();
+        try {
+            buffer.reserveHeader(PacketBuffer.DEFAULT_HEADER_SIZE);
+            packet.serialize(buffer);
+            int length = buffer.readableBytes();
+            int threshold = compressionThreshold;
+            if (threshold < 0) {
+                buffer.prependVarInt(length);
+                buffer.writeTo(output);
+            } else if (length < threshold) {
+                buffer.prependVarInt(0);
+                buffer.prependVarInt(length + 1);
+                buffer.writeTo(output);
+            } else {
+                compress(buffer.array(), buffer.arrayOffset(), length);
+                DataTypeIO.writeVarInt(output, DataTypeIO.getVarIntLength(length) + compressedOutput.size());
+                DataTypeIO.writeVarInt(output, length);
+                compressedOutput.writeTo(output);
+            }
+        } finally {
+            buffer.release();
+        }
+        if (autoFlush) {
+            output.flush();
+        }
         return true;
     }
 
+    private void writeCachedPacket(CachedPacketOut packet) throws IOException {
+        ByteBuffer packetBuffer = packet.getSerializedPacket();
+        int length = packetBuffer.remaining();
+        int threshold = compressionThreshold;
+        if (threshold < 0) {
+            DataTypeIO.writeVarInt(output, length);
+        } else if (length < threshold) {
+            DataTypeIO.writeVarInt(output, length + 1);
+            DataTypeIO.writeVarInt(output, 0);
+        } else {
+            packetBuffer = packet.getCompressedPacket();
+            compressionInputBytes.addAndGet(length);
+            compressionOutputBytes.addAndGet(packetBuffer.remaining());
+            getStatistics().recordCompression(length, packetBuffer.remaining());
+            DataTypeIO.writeVarInt(output, DataTypeIO.getVarIntLength(length) + packetBuffer.remaining());
+            DataTypeIO.writeVarInt(output, length);
+        }
+        while (packetBuffer.hasRemaining()) {
+            outputChannel.write(packetBuffer);
+        }
+        if (autoFlush) {
+            output.flush();
+        }
+    }
+
+    private void compress(byte[] data, int offset, int length) {
+        synchronized (deflater) {
+            deflater.reset();
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            compressedOutput.reset();
+            while (!deflater.finished()) {
+                int deflated = deflater.deflate(deflateBuffer);
+                compressedOutput.write(deflateBuffer, 0, deflated);
+            }
+        }
+        compressionInputBytes.addAndGet(length);
+        compressionOutputBytes.addAndGet(compressedOutput.size());
+        getStatistics().recordCompression(length, compressedOutput.size());
+    }
+
+    private byte[] decompress(byte[] compressed, int dataLength) throws IOException {
+        byte[] data = new byte[dataLength];
+        int position = 0;
+        synchronized (inflater) {
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                while (position < dataLength && !inflater.finished()) {
+                    int length = inflater.inflate(data, position, dataLength - position);
+                    if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    position += length;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Badly compressed packet", e);
+            }
+        }
+        if (position != dataLength) {
+            throw new IOException("Badly compressed packet - actual length of uncompressed payload " + position + " does not match declared size " + dataLength);
+        }
+        return data;
+    }
+
     @Override
     public synchronized void close() throws Exception {
-        if (valid.compareAndSet(false, true)) {
-            input.close();
-            output.close();
+        if (valid.compareAndSet(true, false)) {
+            try {
+                input.close();
+                output.close();
+            } finally {
+                if (deflater != null) {
+                    synchronized (deflater) {
+                        deflater.end();
+                    }
+                    synchronized (inflater) {
+                        inflater.end();
+                    }
+                }
+            }
         }
     }
 
@@ -19,14 +19,24 @@
 
 package com.loohp.limbo.network;
 
+import java.io.IOException;
+
+import com.loohp.limbo.network.protocol.packets.CachedPacketOut;
 import com.loohp.limbo.network.protocol.packets.PacketOut;
 
 public final class ChannelPacketWrite {
 
     private PacketOut packet;
-
-    ChannelPacketWrite(PacketOut packet) {
-        this.packet = packet;
+    private CachedPacketOut cachedPacket;
+
+    ChannelPacketWrite(PacketOut packet) throws IOException {
+        if (packet instanceof CachedPacketOut) {
+            this.cachedPacket = (CachedPacketOut) packet;
+            this.packet = cachedPacket.getPacket();
+        } else {
+            this.cachedPacket = null;
+            this.packet = packet;
+        }
     }
 
     public PacketOut getPacket() {
@@ -34,7 +44,14 @@ public final class ChannelPacketWrite {
     }
 
     public void setPacket(PacketOut packet) {
+        if (packet != this.packet) {
+            cachedPacket = null;
+        }
         this.packet = packet;
     }
 
+    PacketOut getWritePacket() {
+        return cachedPacket == null ? packet : cachedPacket;
+    }
+
 }
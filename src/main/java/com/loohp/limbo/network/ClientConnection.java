@@ -31,14 +31,19 @@ import com.loohp.limbo.events.player.PluginMessageEvent;
 import com.loohp.limbo.events.status.StatusPingEvent;
 import com.loohp.limbo.file.ServerProperties;
 import com.loohp.limbo.location.Location;
+import com.loohp.limbo.network.protocol.packets.CachedPacketOut;
 import com.loohp.limbo.network.protocol.packets.Packet;
+import com.loohp.limbo.network.protocol.packets.PacketDecoder;
 import com.loohp.limbo.network.protocol.packets.PacketHandshakingIn;
 import com.loohp.limbo.network.protocol.packets.PacketIn;
+import com.loohp.limbo.network.protocol.packets.PacketLoginInEncryptionResponse;
 import com.loohp.limbo.network.protocol.packets.PacketLoginInLoginStart;
 import com.loohp.limbo.network.protocol.packets.PacketLoginInPluginMessaging;
 import com.loohp.limbo.network.protocol.packets.PacketLoginOutDisconnect;
+import com.loohp.limbo.network.protocol.packets.PacketLoginOutEncryptionRequest;
 import com.loohp.limbo.network.protocol.packets.PacketLoginOutLoginSuccess;
 import com.loohp.limbo.network.protocol.packets.PacketLoginOutPluginMessaging;
+import com.loohp.limbo.network.protocol.packets.PacketLoginOutSetCompression;
 import com.loohp.limbo.network.protocol.packets.PacketOut;
 import com.loohp.limbo.network.protocol.packets.PacketPlayInChat;
 import com.loohp.limbo.network.protocol.packets.PacketPlayInHeldItemChange;
@@ -63,6 +68,7 @@ import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerInfo;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerInfo.PlayerInfoAction;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerInfo.PlayerInfoData;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerInfo.PlayerInfoData.PlayerInfoDataAddPlayer.PlayerSkinProperty;
+import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerListHeaderFooter;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutPluginMessaging;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutPositionAndLook;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutSpawnPosition;
@@ -77,16 +83,18 @@ import com.loohp.limbo.network.protocol.packets.ServerboundChatCommandPacket;
 import com.loohp.limbo.player.Player;
 import com.loohp.limbo.player.PlayerInteractManager;
 import com.loohp.limbo.utils.BungeecordAdventureConversionUtils;
-import com.loohp.limbo.utils.CheckedBiConsumer;
 import com.loohp.limbo.utils.CustomStringUtils;
 import com.loohp.limbo.utils.DataTypeIO;
 import com.loohp.limbo.utils.DeclareCommands;
+import com.loohp.limbo.utils.EncryptionUtils;
 import com.loohp.limbo.utils.ForwardingUtils;
 import com.loohp.limbo.utils.GameMode;
 import com.loohp.limbo.utils.MojangAPIUtils;
 import com.loohp.limbo.utils.MojangAPIUtils.SkinResponse;
 import com.loohp.limbo.utils.NamespacedKey;
+import com.loohp.limbo.utils.Pair;
 import com.loohp.limbo.world.BlockPosition;
+import com.loohp.limbo.world.DimensionRegistry;
 import com.loohp.limbo.world.World;
 import net.kyori.adventure.text.Component;
 import net.md_5.bungee.api.ChatColor;
@@ -101,53 +109,136 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import java.io.StringWriter;
 import java.io.PrintWriter;
+import javax.crypto.SecretKey;
 
-public class ClientConnection extends Thread {
+public class ClientConnection implements Runnable {
 
     private static final NamespacedKey DEFAULT_HANDLER_NAMESPACE = new NamespacedKey("default");
     private static final String BRAND_ANNOUNCE_CHANNEL = new NamespacedKey("brand").toString();
+    private static volatile Pair<String, CachedPacketOut> brandAnnouncePacket = null;
+    private static volatile Pair<Pair<Component, Component>, CachedPacketOut> playerListHeaderFooterPacket = null;
+
+    private static CachedPacketOut getBrandAnnouncePacket(ServerProperties properties) throws IOException {
+        String brand = properties.getServerModName();
+        Pair<String, CachedPacketOut> cached = brandAnnouncePacket;
+        if (cached == null || !cached.getFirst().equals(brand)) {
+            ByteArrayOutputStream brandOut = new ByteArrayOutputStream();
+            DataTypeIO.writeString(new DataOutputStream(brandOut), brand, StandardCharsets.UTF_8);
+            cached = new Pair<>(brand, new CachedPacketOut(new PacketPlayOutPluginMessaging(BRAND_ANNOUNCE_CHANNEL, brandOut.toByteArray())));
+            brandAnnouncePacket = cached;
+        }
+        return cached.getSecond();
+    }
+
+    private static CachedPacketOut getPlayerListHeaderFooterPacket(ServerProperties properties) {
+        Pair<Component, Component> headerFooter = new Pair<>(properties.getTabHeader(), properties.getTabFooter());
+        Pair<Pair<Component, Component>, CachedPacketOut> cached = playerListHeaderFooterPacket;
+        if (cached == null || !cached.getFirst().equals(headerFooter)) {
+            cached = new Pair<>(headerFooter, new CachedPacketOut(new PacketPlayOutPlayerListHeaderFooter(headerFooter.getFirst(), headerFooter.getSecond())));
+            playerListHeaderFooterPacket = cached;
+        }
+        return cached.getSecond();
+    }
 
     private final Random random = new Random();
     private final Socket clientSocket;
+    private final AsyncConnection asyncConnection;
+    private int port;
+    private BufferedFrameInputStream frameInput;
+    private QueuedOutputStream queuedOutput;
+    private final OutboundQueue outboundQueue;
+    private final AtomicLong droppedPackets;
+    private final ReentrantLock writeLock;
     protected Channel channel;
     private boolean running;
-    private ClientState state;
+    private volatile ClientState state;
+    private volatile long stateTimestamp;
+    private volatile long lastReadTimestamp;
 
     private Player player;
-    private TimerTask keepAliveTask;
     private AtomicLong lastPacketTimestamp;
     private AtomicLong lastKeepAlivePayLoad;
+    private volatile boolean awaitingKeepAlive;
+    private volatile int ping;
     private InetAddress inetAddress;
     private boolean ready;
+    private volatile boolean loginAdmitted;
+    private final boolean coalesceMovement;
+    private final PendingMovement pendingMovement;
+    private int viewChunkX;
+    private int viewChunkZ;
+
+    private UUID bungeeUUID;
+    private SkinResponse forwardedSkin;
+    private int messageId;
+    private String loginUsername;
+    private byte[] loginPublicKey;
+    private byte[] loginVerifyToken;
+    private List<PacketIn> pendingPlayPackets;
+    private ProxyProtocolDecoder proxyProtocolDecoder;
 
     public ClientConnection(Socket clientSocket) {
+        this(clientSocket, clientSocket.getInetAddress(), clientSocket.getPort(), createOutboundQueue(), null);
+    }
+
+    public ClientConnection(SocketChannel socketChannel, EventLoop eventLoop) {
+        this(socketChannel.socket(), socketChannel.socket().getInetAddress(), socketChannel.socket().getPort(), createOutboundQueue(), connection -> new NioConnection(connection, socketChannel, eventLoop, connection.outboundQueue));
+    }
+
+    protected ClientConnection(InetSocketAddress remoteAddress, AsyncConnection asyncConnection, OutboundQueue outboundQueue) {
+        this(null, remoteAddress.getAddress(), remoteAddress.getPort(), outboundQueue, connection -> asyncConnection);
+    }
+
+    private ClientConnection(Socket clientSocket, InetAddress inetAddress, int port, OutboundQueue outboundQueue, Function<ClientConnection, AsyncConnection> asyncConnectionFactory) {
         this.clientSocket = clientSocket;
-        this.inetAddress = clientSocket.getInetAddress();
+        this.outboundQueue = outboundQueue;
+        this.droppedPackets = new AtomicLong();
+        this.writeLock = new ReentrantLock();
+        this.asyncConnection = asyncConnectionFactory == null ? null : asyncConnectionFactory.apply(this);
+        this.inetAddress = inetAddress;
+        this.port = port;
         this.lastPacketTimestamp = new AtomicLong(-1);
         this.lastKeepAlivePayLoad = new AtomicLong(-1);
+        this.awaitingKeepAlive = false;
+        this.ping = 0;
         this.channel = null;
         this.running = false;
         this.ready = false;
+        this.loginAdmitted = false;
+        this.coalesceMovement = Limbo.getInstance().getServerProperties().isNetworkMovementCoalescing();
+        this.pendingMovement = new PendingMovement();
+        this.viewChunkX = Integer.MIN_VALUE;
+        this.viewChunkZ = Integer.MIN_VALUE;
+    }
+
+    protected static OutboundQueue createOutboundQueue() {
+        ServerProperties properties = Limbo.getInstance().getServerProperties();
+        return new OutboundQueue(properties.getNetworkOutboundHighWatermark(), properties.getNetworkOutboundLowWatermark(), properties.getNetworkOutboundMaxBytes());
     }
 
     public InetAddress getInetAddress() {
@@ -162,6 +253,14 @@ public class ClientConnection extends Thread {
         this.lastKeepAlivePayLoad.set(payLoad);
     }
 
+    public long getStateTimestamp() {
+        return stateTimestamp;
+    }
+
+    public long getLastReadTimestamp() {
+        return lastReadTimestamp;
+    }
+
     public long getLastPacketTimestamp() {
         return lastPacketTimestamp.get();
     }
@@ -170,8 +269,8 @@ public class ClientConnection extends Thread {
         this.lastPacketTimestamp.set(payLoad);
     }
 
-    public TimerTask getKeepAliveTask() {
-        return this.keepAliveTask;
+    public int getPing() {
+        return ping;
     }
 
     public Player getPlayer() {
@@ -190,6 +289,30 @@ public class ClientConnection extends Thread {
         return channel;
     }
 
+    public NioConnection getNioConnection() {
+        return asyncConnection instanceof NioConnection ? (NioConnection) asyncConnection : null;
+    }
+
+    public AsyncConnection getAsyncConnection() {
+        return asyncConnection;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public boolean isNonBlocking() {
+        return asyncConnection != null;
+    }
+
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+
+    public long getDroppedPackets() {
+        return droppedPackets.get();
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -203,9 +326,55 @@ public class ClientConnection extends Thread {
         sendPacket(packet);
     }
 
-    public synchronized void sendPacket(PacketOut packet) throws IOException {
-        if (channel.writePacket(packet)) {
-            setLastPacketTimestamp(System.currentTimeMillis());
+    public void sendPacket(PacketOut packet) throws IOException {
+        writeLock.lock();
+        try {
+            if (outboundQueue.isCongested() && handleCongestion(packet)) {
+                return;
+            }
+            if (channel.writePacket(packet)) {
+                setLastPacketTimestamp(System.currentTimeMillis());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean handleCongestion(PacketOut packet) {
+        ServerProperties properties = Limbo.getInstance().getServerProperties();
+        NetworkStatistics statistics = Limbo.getInstance().getServerConnection().getStatistics();
+        boolean full = outboundQueue.isFull();
+        if (ready && packet.isDroppable() && (full || properties.getNetworkOutboundPolicy().equalsIgnoreCase("drop"))) {
+            droppedPackets.incrementAndGet();
+            statistics.recordDroppedPacket();
+            return true;
+        }
+        long congestedSince = outboundQueue.getCongestedSince();
+        if (full || (congestedSince >= 0 && System.currentTimeMillis() - congestedSince > properties.getNetworkOutboundTimeout())) {
+            String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port + (player == null ? "" : "|" + player.getName());
+            Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Connection closed, client is not reading fast enough (" + outboundQueue.getQueuedBytes() + " bytes queued)");
+            statistics.recordCongestionDisconnect();
+            abortSocket();
+            return true;
+        }
+        return false;
+    }
+
+    public void flush() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel != null) {
+                channel.flush();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception ignored) {
         }
     }
 
@@ -219,10 +388,17 @@ public class ClientConnection extends Thread {
             sendPacket(packet);
         } catch (IOException ignored) {
         }
+        closeSocket();
+    }
+
+    private void disconnectAbruptly(Component reason) {
         try {
-            clientSocket.close();
+            PacketPlayOutDisconnect packet = new PacketPlayOutDisconnect(reason);
+            sendPacket(packet);
         } catch (IOException ignored) {
         }
+        flushQuietly();
+        abortSocket();
     }
 
     private void disconnectDuringLogin(BaseComponent[] reason) {
@@ -235,14 +411,43 @@ public class ClientConnection extends Thread {
             sendPacket(packet);
         } catch (IOException ignored) {
         }
-        try {
-            clientSocket.close();
-        } catch (IOException ignored) {
+        closeSocket();
+    }
+
+    private void closeSocket() {
+        flushQuietly();
+        if (asyncConnection != null) {
+            asyncConnection.close();
+        } else {
+            try {
+                if (channel == null) {
+                    clientSocket.close();
+                } else {
+                    channel.output.close();
+                }
+            } catch (IOException e) {
+                try {
+                    clientSocket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void abortSocket() {
+        if (asyncConnection != null) {
+            asyncConnection.close();
+        } else {
+            try {
+                clientSocket.close();
+            } catch (IOException ignored) {
+            }
         }
     }
 
     private void setChannel(DataInputStream input, DataOutputStream output) {
         this.channel = new Channel(input, output);
+        this.channel.setAutoFlush(!Limbo.getInstance().getServerProperties().isNetworkWriteBatching());
 
         this.channel.addHandlerBefore(DEFAULT_HANDLER_NAMESPACE, new ChannelPacketHandler() {
             @Override
@@ -254,38 +459,28 @@ public class ClientConnection extends Thread {
                     DataInput input = read.getDataInput();
                     int size = read.getSize();
                     int packetId = read.getPacketId();
-                    Class<? extends PacketIn> packetType;
+                    PacketDecoder decoder;
                     switch (state) {
                         case HANDSHAKE:
-                            packetType = Packet.getHandshakeIn().get(packetId);
+                            decoder = Packet.getHandshakeInDecoder(packetId);
                             break;
                         case STATUS:
-                            packetType = Packet.getStatusIn().get(packetId);
+                            decoder = Packet.getStatusInDecoder(packetId);
                             break;
                         case LOGIN:
-                            packetType = Packet.getLoginIn().get(packetId);
+                            decoder = Packet.getLoginInDecoder(packetId);
                             break;
                         case PLAY:
-                            packetType = Packet.getPlayIn().get(packetId);
+                            decoder = Packet.getPlayInDecoder(packetId);
                             break;
                         default:
                             throw new IllegalStateException("Illegal ClientState!");
                     }
-                    if (packetType == null) {
+                    if (decoder == null) {
                         input.skipBytes(size - DataTypeIO.getVarIntLength(packetId));
                         return null;
                     }
-                    Constructor<?>[] constructors = packetType.getConstructors();
-                    Constructor<?> constructor = Stream.of(constructors).filter(each -> each.getParameterCount() > 0 && each.getParameterTypes()[0].equals(DataInputStream.class)).findFirst().orElse(null);
-                    if (constructor == null) {
-                        throw new NoSuchMethodException(packetType + " has no valid constructors!");
-                    } else if (constructor.getParameterCount() == 1) {
-                        read.setPacket((PacketIn) constructor.newInstance(input));
-                    } else if (constructor.getParameterCount() == 3) {
-                        read.setPacket((PacketIn) constructor.newInstance(input, size, packetId));
-                    } else {
-                        throw new NoSuchMethodException(packetType + " has no valid constructors!");
-                    }
+                    read.setPacket(decoder.decode((DataInputStream) input, size, packetId));
                     return super.read(read);
                 } catch (Exception e) {
                     throw new RuntimeException("Unable to read packet", e);
@@ -294,459 +489,866 @@ public class ClientConnection extends Thread {
         });
     }
 
-    @SuppressWarnings("deprecation")
     @Override
     public void run() {
-        running = true;
-        state = ClientState.HANDSHAKE;
         try {
-            clientSocket.setKeepAlive(true);
-            setChannel(new DataInputStream(clientSocket.getInputStream()), new DataOutputStream(clientSocket.getOutputStream()));
-            int handShakeSize = DataTypeIO.readVarInt(channel.input);
+            frameInput = new BufferedFrameInputStream(clientSocket.getInputStream());
+            queuedOutput = new QueuedOutputStream(clientSocket.getOutputStream(), outboundQueue, Limbo.getInstance().getServerConnection().getOutboundExecutor());
+            handleOpen(new DataInputStream(frameInput), new DataOutputStream(queuedOutput));
+            if (isAwaitingProxyHeader()) {
+                readProxyHeader();
+            }
+            int handShakeSize = frameInput.readVarInt();
 
             //legacy ping
-            if (handShakeSize == 0xFE) {
-                ServerProperties properties = Limbo.getInstance().getServerProperties();
-
-                state = ClientState.LEGACY;
-                channel.output.writeByte(255);
-                String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + clientSocket.getPort();
-                Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Legacy Status has pinged");
-                ServerProperties p = Limbo.getInstance().getServerProperties();
-                StatusPingEvent event = Limbo.getInstance().getEventsManager().callEvent(new StatusPingEvent(this, p.getVersionString(), p.getProtocol(), p.getMotd(), p.getMaxPlayers(), Limbo.getInstance().getPlayers().size(), p.getFavicon().orElse(null)));
-                String response = Limbo.getInstance().buildLegacyPingResponse(event.getVersion(), event.getMotd(), event.getMaxPlayers(), event.getPlayersOnline());
-                byte[] bytes = response.getBytes(StandardCharsets.UTF_16BE);
-                channel.output.writeShort(response.length());
-                channel.output.write(bytes);
+            if (isLegacyPing(handShakeSize)) {
+                handleLegacyPing();
+            }
 
+            boolean open;
+            try {
+                open = handlePacket(readPacket(handShakeSize));
+                flush();
+                while (open && state != ClientState.PLAY) {
+                    open = handlePacket(readPacket(-1));
+                    flush();
+                }
+            } catch (Exception e) {
                 channel.close();
                 clientSocket.close();
-                state = ClientState.DISCONNECTED;
+                setState(ClientState.DISCONNECTED);
+                open = false;
             }
 
-            PacketHandshakingIn handshake = (PacketHandshakingIn) channel.readPacket(handShakeSize);
-
-            boolean isBungeecord = Limbo.getInstance().getServerProperties().isBungeecord();
-            boolean isBungeeGuard = Limbo.getInstance().getServerProperties().isBungeeGuard();
-            boolean isVelocityModern = Limbo.getInstance().getServerProperties().isVelocityModern();
-            String bungeeForwarding = handshake.getServerAddress();
-            UUID bungeeUUID = null;
-            SkinResponse forwardedSkin = null;
+            if (open && state == ClientState.PLAY) {
+                handleJoin();
 
-            try {
-                switch (handshake.getHandshakeType()) {
-                    case STATUS:
-                        state = ClientState.STATUS;
-                        while (clientSocket.isConnected()) {
-                            PacketIn packetIn = channel.readPacket();
-                            if (packetIn instanceof PacketStatusInRequest) {
-                                ServerProperties properties = Limbo.getInstance().getServerProperties();
-
-                                String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + clientSocket.getPort();
-                                if (Limbo.getInstance().getServerProperties().handshakeVerboseEnabled()) {
-                                    Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Handshake Status has pinged");
-                                }
-                                ServerProperties p = Limbo.getInstance().getServerProperties();
-                                StatusPingEvent event = Limbo.getInstance().getEventsManager().callEvent(new StatusPingEvent(this, p.getVersionString(), p.getProtocol(), p.getMotd(), p.getMaxPlayers(), Limbo.getInstance().getPlayers().size(), p.getFavicon().orElse(null)));
-                                PacketStatusOutResponse response = new PacketStatusOutResponse(Limbo.getInstance().buildServerListResponseJson(event.getVersion(), event.getProtocol(), event.getMotd(), event.getMaxPlayers(), event.getPlayersOnline(), event.getFavicon()));
-                                sendPacket(response);
-                            } else if (packetIn instanceof PacketStatusInPing) {
-                                PacketStatusInPing ping = (PacketStatusInPing) packetIn;
-                                PacketStatusOutPong pong = new PacketStatusOutPong(ping.getPayload());
-                                sendPacket(pong);
-                                break;
-                            }
+                while (clientSocket.isConnected()) {
+                    try {
+                        if (!handlePlay(readPacket(-1))) {
+                            break;
+                        }
+                        if (channel.input.available() <= 0) {
+                            flush();
                         }
+                    } catch (Exception e) {
                         break;
-                    case LOGIN:
-                        state = ClientState.LOGIN;
-
-                        if (isBungeecord || isBungeeGuard) {
-                            ServerProperties properties = Limbo.getInstance().getServerProperties();
-                            try {
-                                String[] data = bungeeForwarding.split("\\x00");
-                                String host = "";
-                                String floodgate = "";
-                                String clientIp = "";
-                                String bungee = "";
-                                String skinData = "";
-                                int state = 0;
-                                for (int i = 0; i < data.length; i++) {
-                                    if (!properties.isReducedDebugInfo()) {
-                                        Limbo.getInstance().getConsole().sendMessage(String.valueOf(i) + ": " + data[i]);
-                                    }
-
-                                    switch (state) {
-                                    default:
-                                        Limbo.getInstance().getConsole().sendMessage(String.valueOf(i) + ": ignore data: State: " + String.valueOf(state));
-                                        break;
-                                    case 0:
-                                        host = data[i];
-                                        state = 1;
-                                        break;
-                                    case 1:
-                                        if (data[i].startsWith("^Floodgate^")) {
-                                            floodgate = data[i];
-                                            state = 2;
-                                            break;
-                                        }
-                                        /* fallthrough */
-                                    case 2:
-                                        clientIp = data[i];
-                                        state = 3;
-                                        break;
-                                    case 3:
-                                        bungee = data[i];
-                                        state = 4;
-                                        break;
-                                    case 4:
-                                        skinData = data[i];
-                                        state = 6;
-                                        break;
-                                    }
-                                }
-                                if (state != 6) {
-                                    throw new IllegalStateException("Illegal bungee state: " + String.valueOf(state));
-                                }
+                    }
+                }
 
-                                if (!properties.isReducedDebugInfo()) {
-                                    Limbo.getInstance().getConsole().sendMessage("Host: " + host);
-                                    Limbo.getInstance().getConsole().sendMessage("Floodgate: " + floodgate);
-                                    Limbo.getInstance().getConsole().sendMessage("clientIp: " + clientIp);
-                                    Limbo.getInstance().getConsole().sendMessage("bungee: " + bungee);
-                                    Limbo.getInstance().getConsole().sendMessage("skinData: " + skinData);
-                                }
+                handleQuit();
+            }
+        } catch (Exception ignored) {
+        }
 
-                                bungeeUUID = UUID.fromString(bungee.replaceFirst("([0-9a-fA-F]{8})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]+)", "$1-$2-$3-$4-$5"));
-                                inetAddress = InetAddress.getByName(clientIp);
-
-                                boolean bungeeGuardFound = false;
-
-                                if (skinData != "") {
-                                    JSONArray skinJson = (JSONArray) new JSONParser().parse(skinData);
-
-                                    for (Object obj : skinJson) {
-                                        JSONObject property = (JSONObject) obj;
-                                        if (property.get("name").toString().equals("textures")) {
-                                            String skin = property.get("value").toString();
-                                            String signature = property.get("signature").toString();
-                                            forwardedSkin = new SkinResponse(skin, signature);
-                                        } else if (isBungeeGuard && property.get("name").toString().equals("bungeeguard-token")) {
-                                            String token = property.get("value").toString();
-                                            bungeeGuardFound = Limbo.getInstance().getServerProperties().getForwardingSecrets().contains(token);
-                                        }
-                                    }
-                                }
+        handleClose();
+    }
 
-                                if (isBungeeGuard && !bungeeGuardFound) {
-                                    disconnectDuringLogin(TextComponent.fromLegacyText("Invalid information forwarding"));
-                                    break;
-                                }
-                            } catch (Exception e) {
-                                if (!properties.isReducedDebugInfo()) {
-                                    StringWriter sw = new StringWriter();
-                                    PrintWriter pw = new PrintWriter(sw);
-                                    e.printStackTrace(pw);
-                                    Limbo.getInstance().getConsole().sendMessage(sw.toString());
-                                }
-                                Limbo.getInstance().getConsole().sendMessage("If you wish to use bungeecord's IP forwarding, please enable that in your bungeecord config.yml as well!");
-                                disconnectDuringLogin(new BaseComponent[] {new TextComponent(ChatColor.RED + "Please connect from the proxy!")});
-                            }
+    private PacketIn readPacket(int size) throws IOException {
+        while (true) {
+            if (size < 0) {
+                size = frameInput.readVarInt();
+            }
+            lastReadTimestamp = System.currentTimeMillis();
+            frameInput.beginFrame(size);
+            PacketIn packetIn;
+            try {
+                packetIn = channel.readPacketFrame(size);
+            } finally {
+                frameInput.endFrame();
+            }
+            if (packetIn != null) {
+                return packetIn;
+            }
+            size = -1;
+        }
+    }
+
+    private void readProxyHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ProxyProtocolDecoder.MAX_V1_HEADER_LENGTH);
+        while (true) {
+            int read = frameInput.read();
+            if (read < 0) {
+                throw new EOFException();
+            }
+            if (!header.hasRemaining()) {
+                header = ByteBuffer.allocate(header.capacity() * 2).put(header.array());
+            }
+            header.put((byte) read);
+            header.flip();
+            if (handleProxyHeader(header)) {
+                return;
+            }
+            header.position(header.limit());
+            header.limit(header.capacity());
+        }
+    }
+
+    protected void expectProxyHeader() {
+        proxyProtocolDecoder = new ProxyProtocolDecoder();
+    }
+
+    protected boolean isAwaitingProxyHeader() {
+        return proxyProtocolDecoder != null;
+    }
+
+    protected boolean handleProxyHeader(ByteBuffer buffer) throws IOException {
+        if (!proxyProtocolDecoder.decode(buffer)) {
+            return false;
+        }
+        InetSocketAddress source = proxyProtocolDecoder.getSourceAddress();
+        proxyProtocolDecoder = null;
+        if (source != null) {
+            inetAddress = source.getAddress();
+            port = source.getPort();
+        }
+        ServerConnection serverConnection = Limbo.getInstance().getServerConnection();
+        if (!serverConnection.isProxyForwarding() && !serverConnection.getAdmissionController().tryHandshake(inetAddress)) {
+            throw new IOException("Handshake rate limit exceeded for " + inetAddress.getHostAddress());
+        }
+        return true;
+    }
+
+    protected void handleOpen(DataInputStream input, DataOutputStream output) throws IOException {
+        running = true;
+        setState(ClientState.HANDSHAKE);
+        lastReadTimestamp = stateTimestamp;
+        Limbo.getInstance().getServerConnection().getReadTimeoutScheduler().register(this);
+        if (clientSocket != null) {
+            clientSocket.setKeepAlive(true);
+        }
+        setChannel(input, output);
+    }
+
+    private void setState(ClientState state) {
+        ClientState previous = this.state;
+        this.state = state;
+        this.stateTimestamp = System.currentTimeMillis();
+        Limbo.getInstance().getServerConnection().getClients().stateChanged(this, previous, state);
+    }
+
+    protected void reap() {
+        if (state == ClientState.PLAY && ready) {
+            ServerProperties properties = Limbo.getInstance().getServerProperties();
+            String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port + "|" + player.getName();
+            Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Player has not sent anything in time");
+            disconnectAbruptly(Component.translatable("disconnect.timeout"));
+        } else {
+            abortSocket();
+        }
+    }
+
+    protected boolean isLegacyPing(int handShakeSize) {
+        return state == ClientState.HANDSHAKE && handShakeSize == 0xFE;
+    }
+
+    @SuppressWarnings("deprecation")
+    protected void handleLegacyPing() throws Exception {
+        ServerProperties properties = Limbo.getInstance().getServerProperties();
+
+        setState(ClientState.LEGACY);
+        channel.output.writeByte(255);
+        String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port;
+        Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Legacy Status has pinged");
+        ServerProperties p = Limbo.getInstance().getServerProperties();
+        StatusPingEvent event = Limbo.getInstance().getEventsManager().callEvent(new StatusPingEvent(this, p.getVersionString(), p.getProtocol(), p.getMotd(), p.getMaxPlayers(), Limbo.getInstance().getPlayers().size(), p.getFavicon().orElse(null)));
+        String response = Limbo.getInstance().buildLegacyPingResponse(event.getVersion(), event.getMotd(), event.getMaxPlayers(), event.getPlayersOnline());
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_16BE);
+        channel.output.writeShort(response.length());
+        channel.output.write(bytes);
+        channel.output.flush();
+
+        channel.close();
+        closeSocket();
+        setState(ClientState.DISCONNECTED);
+    }
+
+    protected boolean handleFrame(int size) throws Exception {
+        lastReadTimestamp = System.currentTimeMillis();
+        PacketIn packetIn = channel.readPacketFrame(size);
+        if (packetIn == null) {
+            return true;
+        }
+        if (state == ClientState.PLAY) {
+            if (pendingPlayPackets != null) {
+                pendingPlayPackets.add(packetIn);
+                return true;
+            }
+            return handlePlay(packetIn);
+        }
+        boolean open = handlePacket(packetIn);
+        if (open && state == ClientState.PLAY) {
+            startPlay();
+        }
+        return open;
+    }
+
+    private void startPlay() {
+        pendingPlayPackets = new ArrayList<>();
+        Limbo.getInstance().getServerConnection().getWorkerExecutor().execute(() -> {
+            try {
+                handleJoin();
+            } catch (Exception e) {
+                asyncConnection.close();
+                return;
+            }
+            asyncConnection.getExecutor().execute(() -> {
+                List<PacketIn> pending = pendingPlayPackets;
+                pendingPlayPackets = null;
+                try {
+                    for (PacketIn each : pending) {
+                        if (!handlePlay(each)) {
+                            asyncConnection.close();
+                            return;
                         }
+                    }
+                    flush();
+                } catch (Exception e) {
+                    asyncConnection.close();
+                }
+            });
+        });
+    }
 
-                        int messageId = this.random.nextInt();
-                        while (clientSocket.isConnected()) {
-                            PacketIn packetIn = channel.readPacket();
-                            if (packetIn instanceof PacketLoginInLoginStart) {
-                                PacketLoginInLoginStart start = (PacketLoginInLoginStart) packetIn;
-                                String username = start.getUsername();
-
-                                if (Limbo.getInstance().getServerProperties().isVelocityModern()) {
-                                    PacketLoginOutPluginMessaging loginPluginRequest = new PacketLoginOutPluginMessaging(messageId, ForwardingUtils.VELOCITY_FORWARDING_CHANNEL);
-                                    sendPacket(loginPluginRequest);
-                                    continue;
-                                }
+    protected void tickKeepAlive(long now, long interval, long timeout) throws IOException {
+        if (!ready) {
+            return;
+        }
+        long lastPayload = getLastKeepAlivePayLoad();
+        if (awaitingKeepAlive) {
+            if (now - lastPayload > timeout) {
+                ServerProperties properties = Limbo.getInstance().getServerProperties();
+                String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port + "|" + player.getName();
+                Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Player did not respond to KeepAlive in time");
+                disconnectAbruptly(Component.translatable("disconnect.timeout"));
+            }
+        } else if (now - lastPayload >= interval) {
+            awaitingKeepAlive = true;
+            setLastKeepAlivePayLoad(now);
+            sendPacket(new PacketPlayOutKeepAlive(now));
+            flush();
+        }
+    }
 
-                                UUID uuid = isBungeecord || isBungeeGuard ? bungeeUUID : UUID.nameUUIDFromBytes(("OfflinePlayer:" + username).getBytes(StandardCharsets.UTF_8));
+    protected void handleReadComplete() {
+        flushQuietly();
+    }
 
-                                PacketLoginOutLoginSuccess success = new PacketLoginOutLoginSuccess(uuid, username);
-                                sendPacket(success);
+    protected void handleClose() {
+        if (state == ClientState.PLAY && ready && asyncConnection != null) {
+            handleQuit();
+        }
 
-                                state = ClientState.PLAY;
+        try {
+            channel.close();
+        } catch (Exception ignored) {
+        }
+        closeSocket();
+        setState(ClientState.DISCONNECTED);
 
-                                player = new Player(this, username, uuid, Limbo.getInstance().getNextEntityId(), Limbo.getInstance().getServerProperties().getWorldSpawn(), new PlayerInteractManager());
-                                player.setSkinLayers((byte) (0x01 | 0x02 | 0x04 | 0x08 | 0x10 | 0x20 | 0x40));
-                                Limbo.getInstance().addPlayer(player);
+        if (player != null) {
+            Limbo.getInstance().removePlayer(player);
+        }
+        completeLogin();
+        Limbo.getInstance().getServerConnection().getKeepAliveScheduler().unregister(this);
+        Limbo.getInstance().getServerConnection().getReadTimeoutScheduler().unregister(this);
+        Limbo.getInstance().getServerConnection().getClients().remove(this);
+        running = false;
+    }
 
+    private boolean admitLogin() {
+        if (!Limbo.getInstance().getServerConnection().getAdmissionController().tryLogin(inetAddress)) {
+            disconnectDuringLogin(TextComponent.fromLegacyText("Too many login attempts, please try again later"));
+            return false;
+        }
+        loginAdmitted = true;
+        return true;
+    }
+
+    private synchronized void completeLogin() {
+        if (loginAdmitted) {
+            loginAdmitted = false;
+            Limbo.getInstance().getServerConnection().getAdmissionController().completeLogin();
+        }
+    }
+
+    private boolean handlePacket(PacketIn packetIn) throws Exception {
+        switch (state) {
+            case HANDSHAKE:
+                return handleHandshake((PacketHandshakingIn) packetIn);
+            case STATUS:
+                return handleStatus(packetIn);
+            case LOGIN:
+                return handleLogin(packetIn);
+            case PLAY:
+                return handlePlay(packetIn);
+            default:
+                return false;
+        }
+    }
+
+    private boolean handleHandshake(PacketHandshakingIn handshake) throws Exception {
+        boolean isBungeecord = Limbo.getInstance().getServerProperties().isBungeecord();
+        boolean isBungeeGuard = Limbo.getInstance().getServerProperties().isBungeeGuard();
+        String bungeeForwarding = handshake.getServerAddress();
+
+        switch (handshake.getHandshakeType()) {
+            case STATUS:
+                setState(ClientState.STATUS);
+                ServerConnection serverConnection = Limbo.getInstance().getServerConnection();
+                return serverConnection.isProxyForwarding() || serverConnection.getAdmissionController().tryStatusPing(inetAddress);
+            case LOGIN:
+                setState(ClientState.LOGIN);
+
+                if (isBungeecord || isBungeeGuard) {
+                    ServerProperties properties = Limbo.getInstance().getServerProperties();
+                    try {
+                        String[] data = bungeeForwarding.split("\\x00");
+                        String host = "";
+                        String floodgate = "";
+                        String clientIp = "";
+                        String bungee = "";
+                        String skinData = "";
+                        int state = 0;
+                        for (int i = 0; i < data.length; i++) {
+                            if (!properties.isReducedDebugInfo()) {
+                                Limbo.getInstance().getConsole().sendMessage(String.valueOf(i) + ": " + data[i]);
+                            }
+
+                            switch (state) {
+                            default:
+                                Limbo.getInstance().getConsole().sendMessage(String.valueOf(i) + ": ignore data: State: " + String.valueOf(state));
                                 break;
-                            } else if (packetIn instanceof PacketLoginInPluginMessaging) {
-                                PacketLoginInPluginMessaging response = (PacketLoginInPluginMessaging) packetIn;
-                                if (response.getMessageId() != messageId) {
-                                    disconnectDuringLogin(TextComponent.fromLegacyText("Internal error, messageId did not match"));
-                                    break;
-                                }
-                                if (!response.getData().isPresent()) {
-                                    disconnectDuringLogin(TextComponent.fromLegacyText("Unknown login plugin response packet!"));
-                                    break;
-                                }
-                                byte[] responseData = response.getData().get();
-                                if (!ForwardingUtils.validateVelocityModernResponse(responseData)) {
-                                    disconnectDuringLogin(TextComponent.fromLegacyText("Invalid playerinfo forwarding!"));
+                            case 0:
+                                host = data[i];
+                                state = 1;
+                                break;
+                            case 1:
+                                if (data[i].startsWith("^Floodgate^")) {
+                                    floodgate = data[i];
+                                    state = 2;
                                     break;
                                 }
-                                ForwardingUtils.VelocityModernForwardingData data = ForwardingUtils.getVelocityDataFrom(responseData);
-                                inetAddress = InetAddress.getByName(data.getIpAddress());
-                                forwardedSkin = data.getSkinResponse();
+                                /* fallthrough */
+                            case 2:
+                                clientIp = data[i];
+                                state = 3;
+                                break;
+                            case 3:
+                                bungee = data[i];
+                                state = 4;
+                                break;
+                            case 4:
+                                skinData = data[i];
+                                state = 6;
+                                break;
+                            }
+                        }
+                        if (state != 6) {
+                            throw new IllegalStateException("Illegal bungee state: " + String.valueOf(state));
+                        }
 
-                                PacketLoginOutLoginSuccess success = new PacketLoginOutLoginSuccess(data.getUuid(), data.getUsername());
-                                sendPacket(success);
+                        if (!properties.isReducedDebugInfo()) {
+                            Limbo.getInstance().getConsole().sendMessage("Host: " + host);
+                            Limbo.getInstance().getConsole().sendMessage("Floodgate: " + floodgate);
+                            Limbo.getInstance().getConsole().sendMessage("clientIp: " + clientIp);
+                            Limbo.getInstance().getConsole().sendMessage("bungee: " + bungee);
+                            Limbo.getInstance().getConsole().sendMessage("skinData: " + skinData);
+                        }
 
-                                state = ClientState.PLAY;
+                        bungeeUUID = UUID.fromString(bungee.replaceFirst("([0-9a-fA-F]{8})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]+)", "$1-$2-$3-$4-$5"));
+                        inetAddress = InetAddress.getByName(clientIp);
 
-                                player = new Player(this, data.getUsername(), data.getUuid(), Limbo.getInstance().getNextEntityId(), Limbo.getInstance().getServerProperties().getWorldSpawn(), new PlayerInteractManager());
-                                player.setSkinLayers((byte) (0x01 | 0x02 | 0x04 | 0x08 | 0x10 | 0x20 | 0x40));
-                                Limbo.getInstance().addPlayer(player);
+                        boolean bungeeGuardFound = false;
 
-                                break;
+                        if (skinData != "") {
+                            JSONArray skinJson = (JSONArray) new JSONParser().parse(skinData);
+
+                            for (Object obj : skinJson) {
+                                JSONObject property = (JSONObject) obj;
+                                if (property.get("name").toString().equals("textures")) {
+                                    String skin = property.get("value").toString();
+                                    String signature = property.get("signature").toString();
+                                    forwardedSkin = new SkinResponse(skin, signature);
+                                } else if (isBungeeGuard && property.get("name").toString().equals("bungeeguard-token")) {
+                                    String token = property.get("value").toString();
+                                    bungeeGuardFound = Limbo.getInstance().getServerProperties().getForwardingSecrets().contains(token);
+                                }
                             }
                         }
 
-                        PlayerLoginEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerLoginEvent(this, false));
-                        if (event.isCancelled()) {
-                            disconnectDuringLogin(event.getCancelReason());
+                        if (isBungeeGuard && !bungeeGuardFound) {
+                            disconnectDuringLogin(TextComponent.fromLegacyText("Invalid information forwarding"));
+                            return false;
                         }
-
-                        break;
+                    } catch (Exception e) {
+                        if (!properties.isReducedDebugInfo()) {
+                            StringWriter sw = new StringWriter();
+                            PrintWriter pw = new PrintWriter(sw);
+                            e.printStackTrace(pw);
+                            Limbo.getInstance().getConsole().sendMessage(sw.toString());
+                        }
+                        Limbo.getInstance().getConsole().sendMessage("If you wish to use bungeecord's IP forwarding, please enable that in your bungeecord config.yml as well!");
+                        disconnectDuringLogin(new BaseComponent[] {new TextComponent(ChatColor.RED + "Please connect from the proxy!")});
+                        return false;
+                    }
                 }
-            } catch (Exception e) {
-                channel.close();
-                clientSocket.close();
-                state = ClientState.DISCONNECTED;
-            }
 
-            if (state == ClientState.PLAY) {
+                messageId = this.random.nextInt();
+                return true;
+            default:
+                return false;
+        }
+    }
 
-                TimeUnit.MILLISECONDS.sleep(500);
+    private boolean handleStatus(PacketIn packetIn) throws Exception {
+        if (packetIn instanceof PacketStatusInRequest) {
+            ServerProperties properties = Limbo.getInstance().getServerProperties();
 
-                ServerProperties properties = Limbo.getInstance().getServerProperties();
-                Location worldSpawn = properties.getWorldSpawn();
+            String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port;
+            if (Limbo.getInstance().getServerProperties().handshakeVerboseEnabled()) {
+                Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Handshake Status has pinged");
+            }
+            ServerProperties p = Limbo.getInstance().getServerProperties();
+            StatusPingEvent event = Limbo.getInstance().getEventsManager().callEvent(new StatusPingEvent(this, p.getVersionString(), p.getProtocol(), p.getMotd(), p.getMaxPlayers(), Limbo.getInstance().getPlayerCount(), p.getFavicon().orElse(null)));
+            PacketOut response;
+            if (event.isDynamic()) {
+                response = new PacketStatusOutResponse(Limbo.getInstance().buildServerListResponseJson(event.getVersion(), event.getProtocol(), event.getMotd(), event.getMaxPlayers(), event.getPlayersOnline(), event.getFavicon()));
+            } else {
+                response = Limbo.getInstance().getServerConnection().getStatusResponseCache().getResponse(event.getVersion(), event.getProtocol(), event.getMotd(), event.getMaxPlayers(), event.getPlayersOnline(), event.getFavicon());
+            }
+            sendPacket(response);
+        } else if (packetIn instanceof PacketStatusInPing) {
+            PacketStatusInPing ping = (PacketStatusInPing) packetIn;
+            PacketStatusOutPong pong = new PacketStatusOutPong(ping.getPayload());
+            sendPacket(pong);
+            return false;
+        }
+        return true;
+    }
 
-                PlayerSpawnEvent spawnEvent = Limbo.getInstance().getEventsManager().callEvent(new PlayerSpawnEvent(player, worldSpawn));
-                worldSpawn = spawnEvent.getSpawnLocation();
-                World world = worldSpawn.getWorld();
+    private boolean handleLogin(PacketIn packetIn) throws Exception {
+        boolean isBungeecord = Limbo.getInstance().getServerProperties().isBungeecord();
+        boolean isBungeeGuard = Limbo.getInstance().getServerProperties().isBungeeGuard();
 
-                PacketPlayOutLogin join = new PacketPlayOutLogin(player.getEntityId(), false, properties.getDefaultGamemode(), Limbo.getInstance().getWorlds(), Limbo.getInstance().getDimensionRegistry().getCodec(), world, 0, (byte) properties.getMaxPlayers(), 8, 8, properties.isReducedDebugInfo(), true, false, true);
-                sendPacket(join);
-                Limbo.getInstance().getUnsafe().setPlayerGameModeSilently(player, properties.getDefaultGamemode());
+        if (packetIn instanceof PacketLoginInLoginStart) {
+            PacketLoginInLoginStart start = (PacketLoginInLoginStart) packetIn;
+            String username = start.getUsername();
 
-                ByteArrayOutputStream brandOut = new ByteArrayOutputStream();
-                DataTypeIO.writeString(new DataOutputStream(brandOut), properties.getServerModName(), StandardCharsets.UTF_8);
-                sendPluginMessage(BRAND_ANNOUNCE_CHANNEL, brandOut.toByteArray());
+            if (Limbo.getInstance().getServerProperties().isVelocityModern()) {
+                PacketLoginOutPluginMessaging loginPluginRequest = new PacketLoginOutPluginMessaging(messageId, ForwardingUtils.VELOCITY_FORWARDING_CHANNEL);
+                sendPacket(loginPluginRequest);
+                return true;
+            }
 
-                SkinResponse skinresponce = (isVelocityModern || isBungeeGuard || isBungeecord) && forwardedSkin != null ? forwardedSkin : MojangAPIUtils.getSkinFromMojangServer(player.getName());
-                PlayerSkinProperty skin = skinresponce != null ? new PlayerSkinProperty(skinresponce.getSkin(), skinresponce.getSignature()) : null;
-                PacketPlayOutPlayerInfo info = new PacketPlayOutPlayerInfo(PlayerInfoAction.ADD_PLAYER, player.getUniqueId(), new PlayerInfoData.PlayerInfoDataAddPlayer(player.getName(), Optional.ofNullable(skin), properties.getDefaultGamemode(), 0, false, Optional.empty()));
-                sendPacket(info);
+            if (!admitLogin()) {
+                return false;
+            }
 
-                Set<PlayerAbilityFlags> flags = new HashSet<>();
-                if (properties.isAllowFlight()) {
-                    flags.add(PlayerAbilityFlags.FLY);
-                }
-                if (player.getGamemode().equals(GameMode.CREATIVE)) {
-                    flags.add(PlayerAbilityFlags.CREATIVE);
+            if (Limbo.getInstance().getServerProperties().isOnlineMode()) {
+                loginUsername = username;
+                loginPublicKey = start.getPublicKey().orElse(null);
+                loginVerifyToken = new byte[4];
+                random.nextBytes(loginVerifyToken);
+                PacketLoginOutEncryptionRequest encryptionRequest = new PacketLoginOutEncryptionRequest("", Limbo.getInstance().getServerConnection().getKeyPair().getPublic().getEncoded(), loginVerifyToken);
+                sendPacket(encryptionRequest);
+                return true;
+            }
+
+            UUID uuid = isBungeecord || isBungeeGuard ? bungeeUUID : UUID.nameUUIDFromBytes(("OfflinePlayer:" + username).getBytes(StandardCharsets.UTF_8));
+            loginSuccess(uuid, username);
+        } else if (packetIn instanceof PacketLoginInEncryptionResponse) {
+            return handleEncryptionResponse((PacketLoginInEncryptionResponse) packetIn);
+        } else if (packetIn instanceof PacketLoginInPluginMessaging) {
+            PacketLoginInPluginMessaging response = (PacketLoginInPluginMessaging) packetIn;
+            if (response.getMessageId() != messageId) {
+                disconnectDuringLogin(TextComponent.fromLegacyText("Internal error, messageId did not match"));
+            } else if (!response.getData().isPresent()) {
+                disconnectDuringLogin(TextComponent.fromLegacyText("Unknown login plugin response packet!"));
+            } else if (!ForwardingUtils.validateVelocityModernResponse(response.getData().get())) {
+                disconnectDuringLogin(TextComponent.fromLegacyText("Invalid playerinfo forwarding!"));
+            } else {
+                ForwardingUtils.VelocityModernForwardingData data = ForwardingUtils.getVelocityDataFrom(response.getData().get());
+                inetAddress = InetAddress.getByName(data.getIpAddress());
+                forwardedSkin = data.getSkinResponse();
+
+                if (!admitLogin()) {
+                    return false;
                 }
-                PacketPlayOutPlayerAbilities abilities = new PacketPlayOutPlayerAbilities(0.05F, 0.1F, flags.toArray(new PlayerAbilityFlags[flags.size()]));
-                sendPacket(abilities);
 
-                String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + clientSocket.getPort() + "|" + player.getName() + "(" + player.getUniqueId() + ")";
-                Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Player had connected to the Limbo server!");
+                loginSuccess(data.getUuid(), data.getUsername());
+            }
+        } else {
+            return true;
+        }
 
-                player.playerInteractManager.update();
+        return callLoginEvent();
+    }
 
-                PacketPlayOutDeclareCommands declare = DeclareCommands.getDeclareCommandsPacket(player);
-                if (declare != null) {
-                    sendPacket(declare);
+    private boolean handleEncryptionResponse(PacketLoginInEncryptionResponse response) throws Exception {
+        if (loginVerifyToken == null) {
+            disconnectDuringLogin(TextComponent.fromLegacyText("Unexpected encryption response!"));
+            return false;
+        }
+        ServerConnection serverConnection = Limbo.getInstance().getServerConnection();
+        KeyPair keyPair = serverConnection.getKeyPair();
+        SecretKey sharedSecret;
+        try {
+            boolean valid;
+            if (response.getVerifyToken().isPresent()) {
+                valid = Arrays.equals(loginVerifyToken, EncryptionUtils.decrypt(keyPair.getPrivate(), response.getVerifyToken().get()));
+            } else {
+                valid = loginPublicKey != null && EncryptionUtils.verifyChallengeSignature(loginPublicKey, loginVerifyToken, response.getSalt(), response.getSignature());
+            }
+            if (!valid) {
+                disconnectDuringLogin(TextComponent.fromLegacyText("Invalid verify token!"));
+                return false;
+            }
+            sharedSecret = EncryptionUtils.decryptSharedSecret(keyPair.getPrivate(), response.getSharedSecret());
+        } catch (GeneralSecurityException e) {
+            disconnectDuringLogin(TextComponent.fromLegacyText("Invalid encryption response!"));
+            return false;
+        }
+        loginVerifyToken = null;
+        enableEncryption(sharedSecret);
+
+        String serverId = EncryptionUtils.getServerIdHash("", keyPair.getPublic(), sharedSecret);
+        SessionVerifier verifier = serverConnection.getSessionVerifier();
+        if (asyncConnection == null) {
+            SessionProfile profile = null;
+            IOException failure = null;
+            try {
+                profile = verifier.verify(loginUsername, serverId, inetAddress);
+            } catch (IOException e) {
+                failure = e;
+            }
+            return completeSession(profile, failure);
+        }
+        serverConnection.getWorkerExecutor().execute(() -> {
+            SessionProfile profile = null;
+            IOException failure = null;
+            try {
+                profile = verifier.verify(loginUsername, serverId, inetAddress);
+            } catch (IOException e) {
+                failure = e;
+            }
+            SessionProfile verifiedProfile = profile;
+            IOException verifyFailure = failure;
+            asyncConnection.getExecutor().execute(() -> {
+                try {
+                    if (completeSession(verifiedProfile, verifyFailure)) {
+                        startPlay();
+                    }
+                } catch (Exception e) {
+                    asyncConnection.close();
                 }
+            });
+        });
+        return true;
+    }
 
-                PacketPlayOutSpawnPosition spawnPos = new PacketPlayOutSpawnPosition(BlockPosition.from(worldSpawn), worldSpawn.getPitch());
-                sendPacket(spawnPos);
+    private boolean completeSession(SessionProfile profile, IOException failure) throws Exception {
+        if (failure != null) {
+            Limbo.getInstance().getConsole().sendMessage("Unable to verify session of " + loginUsername + ": " + failure.getMessage());
+            disconnectDuringLogin(Component.translatable("multiplayer.disconnect.authservers_down"));
+            return false;
+        }
+        if (profile == null) {
+            disconnectDuringLogin(Component.translatable("multiplayer.disconnect.unverified_username"));
+            return false;
+        }
+        forwardedSkin = profile.getSkin();
+        loginSuccess(profile.getUniqueId(), profile.getName());
+        return callLoginEvent();
+    }
 
-                PacketPlayOutPositionAndLook positionLook = new PacketPlayOutPositionAndLook(worldSpawn.getX(), worldSpawn.getY(), worldSpawn.getZ(), worldSpawn.getYaw(), worldSpawn.getPitch(), 1, false);
-                Limbo.getInstance().getUnsafe().setPlayerLocationSilently(player, new Location(world, worldSpawn.getX(), worldSpawn.getY(), worldSpawn.getZ(), worldSpawn.getYaw(), worldSpawn.getPitch()));
-                sendPacket(positionLook);
+    private void loginSuccess(UUID uuid, String username) throws Exception {
+        enableCompression();
+        PacketLoginOutLoginSuccess success = new PacketLoginOutLoginSuccess(uuid, username);
+        sendPacket(success);
 
-                player.getDataWatcher().update();
-                PacketPlayOutEntityMetadata show = new PacketPlayOutEntityMetadata(player, false, Player.class.getDeclaredField("skinLayers"));
-                sendPacket(show);
+        setState(ClientState.PLAY);
 
-                Limbo.getInstance().getEventsManager().callEvent(new PlayerJoinEvent(player));
+        player = new Player(this, username, uuid, Limbo.getInstance().getNextEntityId(), Limbo.getInstance().getServerProperties().getWorldSpawn(), new PlayerInteractManager());
+        player.setSkinLayers((byte) (0x01 | 0x02 | 0x04 | 0x08 | 0x10 | 0x20 | 0x40));
+        Limbo.getInstance().addPlayer(player);
+    }
 
-                if (properties.isAllowFlight()) {
-                    PacketPlayOutGameState state = new PacketPlayOutGameState(3, player.getGamemode().getId());
-                    sendPacket(state);
-                }
+    private boolean callLoginEvent() {
+        PlayerLoginEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerLoginEvent(this, false));
+        if (event.isCancelled()) {
+            disconnectDuringLogin(event.getCancelReason());
+            return false;
+        }
 
-                // RESOURCEPACK CODE CONRIBUTED BY GAMERDUCK123
-                if (!properties.getResourcePackLink().equalsIgnoreCase("")) {
-                    if (!properties.getResourcePackSHA1().equalsIgnoreCase("")) {
-                        //SEND RESOURCEPACK
-                        player.setResourcePack(properties.getResourcePackLink(), properties.getResourcePackSHA1(), properties.getResourcePackRequired(), properties.getResourcePackPrompt());
-                    } else {
-                        //NO SHA
-                        Limbo.getInstance().getConsole().sendMessage("ResourcePacks require SHA1s");
-                    }
-                } else {
-                    //RESOURCEPACK NOT ENABLED
-                }
+        return state == ClientState.PLAY;
+    }
 
-                // PLAYER LIST HEADER AND FOOTER CODE CONRIBUTED BY GAMERDUCK123
-                player.sendPlayerListHeaderAndFooter(properties.getTabHeader(), properties.getTabFooter());
-
-                ready = true;
-
-                keepAliveTask = new TimerTask() {
-                    @Override
-                    public void run() {
-                        if (ready) {
-                            long now = System.currentTimeMillis();
-                            if (now - getLastPacketTimestamp() > 15000) {
-                                PacketPlayOutKeepAlive keepAlivePacket = new PacketPlayOutKeepAlive(now);
-                                try {
-                                    sendPacket(keepAlivePacket);
-                                    setLastKeepAlivePayLoad(now);
-                                } catch (Exception e) {
-                                }
-                            }
-                        } else {
-                            this.cancel();
-                        }
-                    }
-                };
-                new Timer().schedule(keepAliveTask, 5000, 10000);
+    private void enableEncryption(SecretKey sharedSecret) throws IOException, GeneralSecurityException {
+        PacketCipher encryption = PacketCipher.encryption(sharedSecret);
+        PacketCipher decryption = PacketCipher.decryption(sharedSecret);
+        writeLock.lock();
+        try {
+            flush();
+            if (asyncConnection != null) {
+                asyncConnection.setEncryption(encryption, decryption);
+            } else {
+                queuedOutput.setEncryption(encryption);
+                frameInput.setDecryption(decryption);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-                while (clientSocket.isConnected()) {
-                    try {
-                        CheckedBiConsumer<PlayerMoveEvent, Location, IOException> processMoveEvent = (event, originalTo) -> {
-                            if (event.isCancelled()) {
-                                Location returnTo = event.getFrom();
-                                PacketPlayOutPositionAndLook cancel = new PacketPlayOutPositionAndLook(returnTo.getX(), returnTo.getY(), returnTo.getZ(), returnTo.getYaw(), returnTo.getPitch(), 1, false);
-                                sendPacket(cancel);
-                            } else {
-                                Location to = event.getTo();
-                                Limbo.getInstance().getUnsafe().setPlayerLocationSilently(player, to);
-                                // If an event handler used setTo, let's make sure we tell the player about it.
-                                if (!originalTo.equals(to)) {
-                                    PacketPlayOutPositionAndLook pos = new PacketPlayOutPositionAndLook(to.getX(), to.getY(), to.getZ(), to.getYaw(), to.getPitch(), 1, false);
-                                    sendPacket(pos);
-                                }
-                                PacketPlayOutUpdateViewPosition response = new PacketPlayOutUpdateViewPosition((int) player.getLocation().getX() >> 4, (int) player.getLocation().getZ() >> 4);
-                                sendPacket(response);
-                            }
-                        };
-                        PacketIn packetIn = channel.readPacket();
-                        if (packetIn instanceof PacketPlayInPositionAndLook) {
-                            PacketPlayInPositionAndLook pos = (PacketPlayInPositionAndLook) packetIn;
-                            Location from = player.getLocation();
-                            Location to = new Location(player.getWorld(), pos.getX(), pos.getY(), pos.getZ(), pos.getYaw(), pos.getPitch());
-
-                            if (!from.equals(to)) {
-                                PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
-                                processMoveEvent.consume(event, to);
-                            }
-                        } else if (packetIn instanceof PacketPlayInPosition) {
-                            PacketPlayInPosition pos = (PacketPlayInPosition) packetIn;
-                            Location from = player.getLocation();
-                            Location to = new Location(player.getWorld(), pos.getX(), pos.getY(), pos.getZ(), player.getLocation().getYaw(), player.getLocation().getPitch());
-
-                            if (!from.equals(to)) {
-                                PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
-                                processMoveEvent.consume(event, to);
-                            }
-                        } else if (packetIn instanceof PacketPlayInRotation) {
-                            PacketPlayInRotation pos = (PacketPlayInRotation) packetIn;
-                            Location from = player.getLocation();
-                            Location to = new Location(player.getWorld(), player.getLocation().getX(), player.getLocation().getY(), player.getLocation().getZ(), pos.getYaw(), pos.getPitch());
-
-                            if (!from.equals(to)) {
-                                PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
-                                processMoveEvent.consume(event, to);
-                            }
-                        } else if (packetIn instanceof PacketPlayInKeepAlive) {
-                            long lastPayload = getLastKeepAlivePayLoad();
-                            PacketPlayInKeepAlive alive = (PacketPlayInKeepAlive) packetIn;
-                            if (lastPayload == -1) {
-                                Limbo.getInstance().getConsole().sendMessage("Unsolicited KeepAlive packet for player " + player.getName());
-                            } else if (alive.getPayload() != lastPayload) {
-                                Limbo.getInstance().getConsole().sendMessage("Incorrect Payload received in KeepAlive packet for player " + player.getName());
-                                break;
-                            }
-                        } else if (packetIn instanceof PacketPlayInTabComplete) {
-                            PacketPlayInTabComplete request = (PacketPlayInTabComplete) packetIn;
-                            String[] command = CustomStringUtils.splitStringToArgs(request.getText().substring(1));
-
-                            List<TabCompleteMatches> matches = new ArrayList<>(Limbo.getInstance().getPluginManager().getTabOptions(player, command).stream().map(each -> new TabCompleteMatches(each)).collect(Collectors.toList()));
-
-                            int start = CustomStringUtils.getIndexOfArg(request.getText(), command.length - 1) + 1;
-                            int length = command[command.length - 1].length();
-
-                            PacketPlayOutTabComplete response = new PacketPlayOutTabComplete(request.getId(), start, length, matches.toArray(new TabCompleteMatches[matches.size()]));
-                            sendPacket(response);
-                        } else if (packetIn instanceof PacketPlayInChat) {
-                            PacketPlayInChat chat = (PacketPlayInChat) packetIn;
-                            player.chat(chat.getMessage(), true, chat.getSignature(), chat.getTime());
-                        } else if (packetIn instanceof ServerboundChatCommandPacket) {
-                            ServerboundChatCommandPacket command = (ServerboundChatCommandPacket) packetIn;
-                            Limbo.getInstance().dispatchCommand(player, "/" + command.getCommand());
-                        } else if (packetIn instanceof PacketPlayInHeldItemChange) {
-                            PacketPlayInHeldItemChange change = (PacketPlayInHeldItemChange) packetIn;
-                            PlayerSelectedSlotChangeEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerSelectedSlotChangeEvent(player, (byte) change.getSlot()));
-                            if (event.isCancelled()) {
-                                PacketPlayOutHeldItemChange cancelPacket = new PacketPlayOutHeldItemChange(player.getSelectedSlot());
-                                sendPacket(cancelPacket);
-                            } else if (change.getSlot() != event.getSlot()) {
-                                PacketPlayOutHeldItemChange changePacket = new PacketPlayOutHeldItemChange(event.getSlot());
-                                sendPacket(changePacket);
-                                Limbo.getInstance().getUnsafe().setSelectedSlotSilently(player, event.getSlot());
-                            } else {
-                                Limbo.getInstance().getUnsafe().setSelectedSlotSilently(player, event.getSlot());
-                            }
+    private void enableCompression() throws IOException {
+        int threshold = Limbo.getInstance().getServerProperties().getNetworkCompressionThreshold();
+        if (threshold >= 0) {
+            writeLock.lock();
+            try {
+                PacketLoginOutSetCompression packet = new PacketLoginOutSetCompression(threshold);
+                sendPacket(packet);
+                channel.setCompressionThreshold(threshold);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
 
-                        } else if (packetIn instanceof PacketPlayInResourcePackStatus) {
-                            PacketPlayInResourcePackStatus rpcheck = (PacketPlayInResourcePackStatus) packetIn;
-                            // Pass on result to the events
-                            Limbo.getInstance().getEventsManager().callEvent(new PlayerResourcePackStatusEvent(player, rpcheck.getLoadedValue()));
-                            if (rpcheck.getLoadedValue().equals(EnumResourcePackStatus.DECLINED) && properties.getResourcePackRequired()) {
-                                player.disconnect(new TranslatableComponent("multiplayer.requiredTexturePrompt.disconnect"));
-                            }
-                        } else if (packetIn instanceof PacketPlayInPluginMessaging) {
-                            PacketPlayInPluginMessaging inPluginMessaging = (PacketPlayInPluginMessaging) packetIn;
-                            Limbo.getInstance().getEventsManager().callEvent(new PluginMessageEvent(player, inPluginMessaging.getChannel(), inPluginMessaging.getData()));
-                        }
-                    } catch (Exception e) {
-                        break;
-                    }
-                }
+    @SuppressWarnings("deprecation")
+    private void handleJoin() throws Exception {
+        boolean isBungeecord = Limbo.getInstance().getServerProperties().isBungeecord();
+        boolean isBungeeGuard = Limbo.getInstance().getServerProperties().isBungeeGuard();
+        boolean isVelocityModern = Limbo.getInstance().getServerProperties().isVelocityModern();
+
+        TimeUnit.MILLISECONDS.sleep(500);
+
+        ServerProperties properties = Limbo.getInstance().getServerProperties();
+        Location worldSpawn = properties.getWorldSpawn();
 
-                Limbo.getInstance().getEventsManager().callEvent(new PlayerQuitEvent(player));
+        PlayerSpawnEvent spawnEvent = Limbo.getInstance().getEventsManager().callEvent(new PlayerSpawnEvent(player, worldSpawn));
+        worldSpawn = spawnEvent.getSpawnLocation();
+        World world = worldSpawn.getWorld();
 
-                str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + clientSocket.getPort() + "|" + player.getName();
-                Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Player had disconnected!");
+        DimensionRegistry dimensionRegistry = Limbo.getInstance().getDimensionRegistry();
+        PacketPlayOutLogin join = new PacketPlayOutLogin(player.getEntityId(), false, properties.getDefaultGamemode(), Limbo.getInstance().getWorlds(), dimensionRegistry.getCodec(), dimensionRegistry.getSerializedCodec(), world, 0, (byte) properties.getMaxPlayers(), 8, 8, properties.isReducedDebugInfo(), true, false, true);
+        sendPacket(join);
+        Limbo.getInstance().getUnsafe().setPlayerGameModeSilently(player, properties.getDefaultGamemode());
+
+        sendPacket(getBrandAnnouncePacket(properties));
+
+        SkinResponse skinresponce = (isVelocityModern || isBungeeGuard || isBungeecord || properties.isOnlineMode()) && forwardedSkin != null ? forwardedSkin : MojangAPIUtils.getSkinFromMojangServer(player.getName());
+        PlayerSkinProperty skin = skinresponce != null ? new PlayerSkinProperty(skinresponce.getSkin(), skinresponce.getSignature()) : null;
+        PacketPlayOutPlayerInfo info = new PacketPlayOutPlayerInfo(PlayerInfoAction.ADD_PLAYER, player.getUniqueId(), new PlayerInfoData.PlayerInfoDataAddPlayer(player.getName(), Optional.ofNullable(skin), properties.getDefaultGamemode(), 0, false, Optional.empty()));
+        sendPacket(info);
+
+        Set<PlayerAbilityFlags> flags = new HashSet<>();
+        if (properties.isAllowFlight()) {
+            flags.add(PlayerAbilityFlags.FLY);
+        }
+        if (player.getGamemode().equals(GameMode.CREATIVE)) {
+            flags.add(PlayerAbilityFlags.CREATIVE);
+        }
+        PacketPlayOutPlayerAbilities abilities = new PacketPlayOutPlayerAbilities(0.05F, 0.1F, flags.toArray(new PlayerAbilityFlags[flags.size()]));
+        sendPacket(abilities);
+
+        String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port + "|" + player.getName() + "(" + player.getUniqueId() + ")";
+        Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Player had connected to the Limbo server!");
+
+        player.playerInteractManager.update();
+
+        PacketPlayOutDeclareCommands declare = DeclareCommands.getDeclareCommandsPacket(player);
+        if (declare != null) {
+            sendPacket(declare);
+        }
+
+        PacketPlayOutSpawnPosition spawnPos = new PacketPlayOutSpawnPosition(BlockPosition.from(worldSpawn), worldSpawn.getPitch());
+        sendPacket(spawnPos);
+
+        PacketPlayOutPositionAndLook positionLook = new PacketPlayOutPositionAndLook(worldSpawn.getX(), worldSpawn.getY(), worldSpawn.getZ(), worldSpawn.getYaw(), worldSpawn.getPitch(), 1, false);
+        Limbo.getInstance().getUnsafe().setPlayerLocationSilently(player, new Location(world, worldSpawn.getX(), worldSpawn.getY(), worldSpawn.getZ(), worldSpawn.getYaw(), worldSpawn.getPitch()));
+        sendPacket(positionLook);
+
+        player.getDataWatcher().update();
+        PacketPlayOutEntityMetadata show = new PacketPlayOutEntityMetadata(player, false, Player.class.getDeclaredField("skinLayers"));
+        sendPacket(show);
+
+        Limbo.getInstance().getEventsManager().callEvent(new PlayerJoinEvent(player));
+
+        if (properties.isAllowFlight()) {
+            PacketPlayOutGameState state = new PacketPlayOutGameState(3, player.getGamemode().getId());
+            sendPacket(state);
+        }
+
+        // RESOURCEPACK CODE CONRIBUTED BY GAMERDUCK123
+        if (!properties.getResourcePackLink().equalsIgnoreCase("")) {
+            if (!properties.getResourcePackSHA1().equalsIgnoreCase("")) {
+                //SEND RESOURCEPACK
+                player.setResourcePack(properties.getResourcePackLink(), properties.getResourcePackSHA1(), properties.getResourcePackRequired(), properties.getResourcePackPrompt());
+            } else {
+                //NO SHA
+                Limbo.getInstance().getConsole().sendMessage("ResourcePacks require SHA1s");
             }
-        } catch (Exception ignored) {
+        } else {
+            //RESOURCEPACK NOT ENABLED
         }
 
-        try {
-            channel.close();
-            clientSocket.close();
-        } catch (Exception ignored) {
+        // PLAYER LIST HEADER AND FOOTER CODE CONRIBUTED BY GAMERDUCK123
+        sendPacket(getPlayerListHeaderFooterPacket(properties));
+        flush();
+
+        ready = true;
+        completeLogin();
+
+        setLastKeepAlivePayLoad(System.currentTimeMillis());
+        Limbo.getInstance().getServerConnection().getKeepAliveScheduler().register(this);
+    }
+
+    @SuppressWarnings("deprecation")
+    private void processMoveEvent(PlayerMoveEvent event, Location originalTo) throws IOException {
+        if (event.isCancelled()) {
+            Location returnTo = event.getFrom();
+            PacketPlayOutPositionAndLook cancel = new PacketPlayOutPositionAndLook(returnTo.getX(), returnTo.getY(), returnTo.getZ(), returnTo.getYaw(), returnTo.getPitch(), 1, false);
+            sendPacket(cancel);
+        } else {
+            Location to = event.getTo();
+            Limbo.getInstance().getUnsafe().setPlayerLocationSilently(player, to);
+            // If an event handler used setTo, let's make sure we tell the player about it.
+            if (!originalTo.equals(to)) {
+                PacketPlayOutPositionAndLook pos = new PacketPlayOutPositionAndLook(to.getX(), to.getY(), to.getZ(), to.getYaw(), to.getPitch(), 1, false);
+                sendPacket(pos);
+            }
+            int chunkX = (int) player.getLocation().getX() >> 4;
+            int chunkZ = (int) player.getLocation().getZ() >> 4;
+            if (chunkX != viewChunkX || chunkZ != viewChunkZ) {
+                viewChunkX = chunkX;
+                viewChunkZ = chunkZ;
+                PacketPlayOutUpdateViewPosition response = new PacketPlayOutUpdateViewPosition(chunkX, chunkZ);
+                sendPacket(response);
+            }
         }
-        state = ClientState.DISCONNECTED;
+    }
 
-        if (player != null) {
-            Limbo.getInstance().removePlayer(player);
+    public void processPendingMovement() throws IOException {
+        Location to = pendingMovement.poll(player.getWorld());
+        if (to == null) {
+            return;
         }
-        Limbo.getInstance().getServerConnection().getClients().remove(this);
-        running = false;
+        Location from = player.getLocation();
+        if (!from.equals(to)) {
+            PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
+            processMoveEvent(event, to);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean handlePlay(PacketIn packetIn) throws Exception {
+        ServerProperties properties = Limbo.getInstance().getServerProperties();
+
+        if (packetIn instanceof PacketPlayInPositionAndLook) {
+            PacketPlayInPositionAndLook pos = (PacketPlayInPositionAndLook) packetIn;
+            if (coalesceMovement) {
+                pendingMovement.setPositionAndRotation(pos.getX(), pos.getY(), pos.getZ(), pos.getYaw(), pos.getPitch());
+            } else {
+                Location from = player.getLocation();
+                Location to = new Location(player.getWorld(), pos.getX(), pos.getY(), pos.getZ(), pos.getYaw(), pos.getPitch());
+
+                if (!from.equals(to)) {
+                    PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
+                    processMoveEvent(event, to);
+                }
+            }
+        } else if (packetIn instanceof PacketPlayInPosition) {
+            PacketPlayInPosition pos = (PacketPlayInPosition) packetIn;
+            if (coalesceMovement) {
+                pendingMovement.setPosition(player.getLocation(), pos.getX(), pos.getY(), pos.getZ());
+            } else {
+                Location from = player.getLocation();
+                Location to = new Location(player.getWorld(), pos.getX(), pos.getY(), pos.getZ(), player.getLocation().getYaw(), player.getLocation().getPitch());
+
+                if (!from.equals(to)) {
+                    PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
+                    processMoveEvent(event, to);
+                }
+            }
+        } else if (packetIn instanceof PacketPlayInRotation) {
+            PacketPlayInRotation pos = (PacketPlayInRotation) packetIn;
+            if (coalesceMovement) {
+                pendingMovement.setRotation(player.getLocation(), pos.getYaw(), pos.getPitch());
+            } else {
+                Location from = player.getLocation();
+                Location to = new Location(player.getWorld(), player.getLocation().getX(), player.getLocation().getY(), player.getLocation().getZ(), pos.getYaw(), pos.getPitch());
+
+                if (!from.equals(to)) {
+                    PlayerMoveEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerMoveEvent(player, from, to));
+                    processMoveEvent(event, to);
+                }
+            }
+        } else if (packetIn instanceof PacketPlayInKeepAlive) {
+            long lastPayload = getLastKeepAlivePayLoad();
+            PacketPlayInKeepAlive alive = (PacketPlayInKeepAlive) packetIn;
+            if (lastPayload == -1) {
+                Limbo.getInstance().getConsole().sendMessage("Unsolicited KeepAlive packet for player " + player.getName());
+            } else if (alive.getPayload() != lastPayload) {
+                Limbo.getInstance().getConsole().sendMessage("Incorrect Payload received in KeepAlive packet for player " + player.getName());
+                return false;
+            } else if (awaitingKeepAlive) {
+                awaitingKeepAlive = false;
+                ping = (int) Math.max(0, System.currentTimeMillis() - lastPayload);
+                PacketPlayOutPlayerInfo latency = new PacketPlayOutPlayerInfo(PlayerInfoAction.UPDATE_LATENCY, player.getUniqueId(), new PlayerInfoData.PlayerInfoDataUpdateLatency(ping));
+                sendPacket(latency);
+            }
+        } else if (packetIn instanceof PacketPlayInTabComplete) {
+            PacketPlayInTabComplete request = (PacketPlayInTabComplete) packetIn;
+            String[] command = CustomStringUtils.splitStringToArgs(request.getText().substring(1));
+
+            List<TabCompleteMatches> matches = new ArrayList<>(Limbo.getInstance().getPluginManager().getTabOptions(player, command).stream().map(each -> new TabCompleteMatches(each)).collect(Collectors.toList()));
+
+            int start = CustomStringUtils.getIndexOfArg(request.getText(), command.length - 1) + 1;
+            int length = command[command.length - 1].length();
+
+            PacketPlayOutTabComplete response = new PacketPlayOutTabComplete(request.getId(), start, length, matches.toArray(new TabCompleteMatches[matches.size()]));
+            sendPacket(response);
+        } else if (packetIn instanceof PacketPlayInChat) {
+            PacketPlayInChat chat = (PacketPlayInChat) packetIn;
+            player.chat(chat.getMessage(), true, chat.getSignature(), chat.getTime());
+        } else if (packetIn instanceof ServerboundChatCommandPacket) {
+            ServerboundChatCommandPacket command = (ServerboundChatCommandPacket) packetIn;
+            Limbo.getInstance().dispatchCommand(player, "/" + command.getCommand());
+        } else if (packetIn instanceof PacketPlayInHeldItemChange) {
+            PacketPlayInHeldItemChange change = (PacketPlayInHeldItemChange) packetIn;
+            PlayerSelectedSlotChangeEvent event = Limbo.getInstance().getEventsManager().callEvent(new PlayerSelectedSlotChangeEvent(player, (byte) change.getSlot()));
+            if (event.isCancelled()) {
+                PacketPlayOutHeldItemChange cancelPacket = new PacketPlayOutHeldItemChange(player.getSelectedSlot());
+                sendPacket(cancelPacket);
+            } else if (change.getSlot() != event.getSlot()) {
+                PacketPlayOutHeldItemChange changePacket = new PacketPlayOutHeldItemChange(event.getSlot());
+                sendPacket(changePacket);
+                Limbo.getInstance().getUnsafe().setSelectedSlotSilently(player, event.getSlot());
+            } else {
+                Limbo.getInstance().getUnsafe().setSelectedSlotSilently(player, event.getSlot());
+            }
+
+        } else if (packetIn instanceof PacketPlayInResourcePackStatus) {
+            PacketPlayInResourcePackStatus rpcheck = (PacketPlayInResourcePackStatus) packetIn;
+            // Pass on result to the events
+            Limbo.getInstance().getEventsManager().callEvent(new PlayerResourcePackStatusEvent(player, rpcheck.getLoadedValue()));
+            if (rpcheck.getLoadedValue().equals(EnumResourcePackStatus.DECLINED) && properties.getResourcePackRequired()) {
+                player.disconnect(new TranslatableComponent("multiplayer.requiredTexturePrompt.disconnect"));
+            }
+        } else if (packetIn instanceof PacketPlayInPluginMessaging) {
+            PacketPlayInPluginMessaging inPluginMessaging = (PacketPlayInPluginMessaging) packetIn;
+            Limbo.getInstance().getEventsManager().callEvent(new PluginMessageEvent(player, inPluginMessaging.getChannel(), inPluginMessaging.getData()));
+        }
+        return true;
+    }
+
+    private void handleQuit() {
+        ServerProperties properties = Limbo.getInstance().getServerProperties();
+        Limbo.getInstance().getEventsManager().callEvent(new PlayerQuitEvent(player));
+
+        String str = (properties.isLogPlayerIPAddresses() ? inetAddress.getHostName() : "<ip address withheld>") + ":" + port + "|" + player.getName();
+        Limbo.getInstance().getConsole().sendMessage("[/" + str + "] <-> Player had disconnected!");
     }
 
     public enum ClientState {
@@ -758,4 +1360,54 @@ public class ClientConnection extends Thread {
         DISCONNECTED;
     }
 
+    private static class PendingMovement {
+
+        private boolean pending;
+        private double x;
+        private double y;
+        private double z;
+        private float yaw;
+        private float pitch;
+
+        private synchronized void setPositionAndRotation(double x, double y, double z, float yaw, float pitch) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.yaw = yaw;
+            this.pitch = pitch;
+            this.pending = true;
+        }
+
+        private synchronized void setPosition(Location current, double x, double y, double z) {
+            if (!pending) {
+                this.yaw = current.getYaw();
+                this.pitch = current.getPitch();
+            }
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.pending = true;
+        }
+
+        private synchronized void setRotation(Location current, float yaw, float pitch) {
+            if (!pending) {
+                this.x = current.getX();
+                this.y = current.getY();
+                this.z = current.getZ();
+            }
+            this.yaw = yaw;
+            this.pitch = pitch;
+            this.pending = true;
+        }
+
+        private synchronized Location poll(World world) {
+            if (!pending) {
+                return null;
+            }
+            pending = false;
+            return new Location(world, x, y, z, yaw, pitch);
+        }
+
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.loohp.limbo.network.ClientConnection.ClientState;
+
+public class ClientRegistry implements Iterable<ClientConnection> {
+
+    private final Set<ClientConnection> connections;
+    private final AtomicInteger[] stateCounts;
+
+    public ClientRegistry() {
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.stateCounts = new AtomicInteger[ClientState.values().length];
+        for (int i = 0; i < stateCounts.length; i++) {
+            this.stateCounts[i] = new AtomicInteger();
+        }
+    }
+
+    public boolean add(ClientConnection connection) {
+        if (!connections.add(connection)) {
+            return false;
+        }
+        ClientState state = connection.getClientState();
+        if (state != null) {
+            stateCounts[state.ordinal()].incrementAndGet();
+        }
+        return true;
+    }
+
+    public boolean remove(ClientConnection connection) {
+        if (!connections.remove(connection)) {
+            return false;
+        }
+        ClientState state = connection.getClientState();
+        if (state != null) {
+            stateCounts[state.ordinal()].decrementAndGet();
+        }
+        return true;
+    }
+
+    protected void stateChanged(ClientConnection connection, ClientState from, ClientState to) {
+        if (from == to || !connections.contains(connection)) {
+            return;
+        }
+        if (from != null) {
+            stateCounts[from.ordinal()].decrementAndGet();
+        }
+        stateCounts[to.ordinal()].incrementAndGet();
+    }
+
+    public boolean contains(ClientConnection connection) {
+        return connections.contains(connection);
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    public int getCount(ClientState state) {
+        return stateCounts[state.ordinal()].get();
+    }
+
+    public List<ClientConnection> snapshot() {
+        return new ArrayList<>(connections);
+    }
+
+    @Override
+    public Iterator<ClientConnection> iterator() {
+        return Collections.unmodifiableSet(connections).iterator();
+    }
+
+}
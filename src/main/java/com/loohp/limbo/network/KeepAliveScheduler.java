@@ -0,0 +1,80 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class KeepAliveScheduler {
+
+    private static final long SWEEP_INTERVAL = 1000;
+
+    private final ScheduledExecutorService executor;
+    private final Set<ClientConnection> connections;
+    private final long interval;
+    private final long timeout;
+
+    public KeepAliveScheduler(long interval, long timeout) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Limbo Keep Alive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.interval = interval;
+        this.timeout = timeout;
+        this.executor.scheduleAtFixedRate(this::sweep, SWEEP_INTERVAL, SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    protected void register(ClientConnection connection) {
+        connections.add(connection);
+    }
+
+    protected void unregister(ClientConnection connection) {
+        connections.remove(connection);
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (ClientConnection connection : connections) {
+            try {
+                connection.tickKeepAlive(now, interval, timeout);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+}
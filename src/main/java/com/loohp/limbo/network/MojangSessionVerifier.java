@@ -0,0 +1,100 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import com.loohp.limbo.utils.MojangAPIUtils.SkinResponse;
+
+public class MojangSessionVerifier implements SessionVerifier {
+
+    public static final String SESSION_SERVER_URL = "https://sessionserver.mojang.com/session/minecraft/hasJoined";
+
+    private static final int TIMEOUT = 5000;
+
+    private final String sessionServerUrl;
+
+    public MojangSessionVerifier() {
+        this(SESSION_SERVER_URL);
+    }
+
+    public MojangSessionVerifier(String sessionServerUrl) {
+        this.sessionServerUrl = sessionServerUrl;
+    }
+
+    public String getSessionServerUrl() {
+        return sessionServerUrl;
+    }
+
+    @Override
+    public SessionProfile verify(String username, String serverId, InetAddress address) throws IOException {
+        URL url = new URL(sessionServerUrl + "?username=" + URLEncoder.encode(username, "UTF-8") + "&serverId=" + URLEncoder.encode(serverId, "UTF-8"));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        connection.setUseCaches(false);
+        connection.addRequestProperty("User-Agent", "Mozilla/5.0");
+        connection.addRequestProperty("Cache-Control", "no-cache, no-store, must-revalidate");
+        connection.addRequestProperty("Pragma", "no-cache");
+        int responseCode = connection.getResponseCode();
+        if (responseCode == HttpURLConnection.HTTP_NO_CONTENT) {
+            return null;
+        }
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Session server returned response code " + responseCode + " (" + connection.getResponseMessage() + ")");
+        }
+        try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+            JSONObject json = (JSONObject) new JSONParser().parse(reader);
+            String id = (String) json.get("id");
+            if (id == null) {
+                throw new IOException("Session server response is missing the profile id");
+            }
+            UUID uuid = UUID.fromString(id.replaceFirst("([0-9a-fA-F]{8})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]{4})([0-9a-fA-F]+)", "$1-$2-$3-$4-$5"));
+            String name = (String) json.get("name");
+            SkinResponse skin = null;
+            JSONArray properties = (JSONArray) json.get("properties");
+            if (properties != null) {
+                for (Object obj : properties) {
+                    JSONObject property = (JSONObject) obj;
+                    if ("textures".equals(property.get("name"))) {
+                        skin = new SkinResponse((String) property.get("value"), (String) property.get("signature"));
+                    }
+                }
+            }
+            return new SessionProfile(uuid, name, skin);
+        } catch (ParseException | ClassCastException | IllegalArgumentException e) {
+            throw new IOException("Invalid session server response", e);
+        }
+    }
+
+}
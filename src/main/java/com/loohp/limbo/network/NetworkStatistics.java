@@ -0,0 +1,129 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.loohp.limbo.network.ClientConnection.ClientState;
+
+public class NetworkStatistics {
+
+    private final AtomicLong compressionInputBytes;
+    private final AtomicLong compressionOutputBytes;
+    private final AtomicLong droppedPackets;
+    private final AtomicLong congestionDisconnects;
+    private final AtomicLong rejectedHandshakes;
+    private final AtomicLong rejectedStatusPings;
+    private final AtomicLong rejectedLogins;
+    private final AtomicLong rejectedConcurrentLogins;
+    private final Map<ClientState, AtomicLong> reapedConnections;
+
+    public NetworkStatistics() {
+        this.compressionInputBytes = new AtomicLong();
+        this.compressionOutputBytes = new AtomicLong();
+        this.droppedPackets = new AtomicLong();
+        this.congestionDisconnects = new AtomicLong();
+        this.rejectedHandshakes = new AtomicLong();
+        this.rejectedStatusPings = new AtomicLong();
+        this.rejectedLogins = new AtomicLong();
+        this.rejectedConcurrentLogins = new AtomicLong();
+        this.reapedConnections = new EnumMap<>(ClientState.class);
+        for (ClientState state : ClientState.values()) {
+            this.reapedConnections.put(state, new AtomicLong());
+        }
+    }
+
+    protected void recordCompression(int inputBytes, int outputBytes) {
+        compressionInputBytes.addAndGet(inputBytes);
+        compressionOutputBytes.addAndGet(outputBytes);
+    }
+
+    protected void recordDroppedPacket() {
+        droppedPackets.incrementAndGet();
+    }
+
+    protected void recordCongestionDisconnect() {
+        congestionDisconnects.incrementAndGet();
+    }
+
+    protected void recordRejectedHandshake() {
+        rejectedHandshakes.incrementAndGet();
+    }
+
+    protected void recordRejectedStatusPing() {
+        rejectedStatusPings.incrementAndGet();
+    }
+
+    protected void recordRejectedLogin() {
+        rejectedLogins.incrementAndGet();
+    }
+
+    protected void recordRejectedConcurrentLogin() {
+        rejectedConcurrentLogins.incrementAndGet();
+    }
+
+    protected void recordReapedConnection(ClientState state) {
+        reapedConnections.get(state).incrementAndGet();
+    }
+
+    public long getCompressionInputBytes() {
+        return compressionInputBytes.get();
+    }
+
+    public long getCompressionOutputBytes() {
+        return compressionOutputBytes.get();
+    }
+
+    public double getCompressionRatio() {
+        long input = compressionInputBytes.get();
+        return input == 0 ? 1.0 : (double) compressionOutputBytes.get() / (double) input;
+    }
+
+    public long getDroppedPackets() {
+        return droppedPackets.get();
+    }
+
+    public long getCongestionDisconnects() {
+        return congestionDisconnects.get();
+    }
+
+    public long getRejectedHandshakes() {
+        return rejectedHandshakes.get();
+    }
+
+    public long getRejectedStatusPings() {
+        return rejectedStatusPings.get();
+    }
+
+    public long getRejectedLogins() {
+        return rejectedLogins.get();
+    }
+
+    public long getRejectedConcurrentLogins() {
+        return rejectedConcurrentLogins.get();
+    }
+
+    public long getReapedConnections(ClientState state) {
+        return reapedConnections.get(state).get();
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class NioConnection implements AsyncConnection {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final ClientConnection connection;
+    private final SocketChannel socketChannel;
+    private final EventLoop eventLoop;
+    private final FrameInputStream frameInput;
+    private final FrameOutputStream frameOutput;
+    private final OutboundQueue writeQueue;
+    private final AtomicBoolean flushScheduled;
+    private final AtomicBoolean closed;
+    private SelectionKey key;
+    private ByteBuffer readBuffer;
+    private volatile PacketCipher encryption;
+    private PacketCipher decryption;
+
+    protected NioConnection(ClientConnection connection, SocketChannel socketChannel, EventLoop eventLoop, OutboundQueue writeQueue) {
+        this.connection = connection;
+        this.socketChannel = socketChannel;
+        this.eventLoop = eventLoop;
+        this.frameInput = new FrameInputStream();
+        this.frameOutput = new FrameOutputStream();
+        this.writeQueue = writeQueue;
+        this.flushScheduled = new AtomicBoolean(false);
+        this.closed = new AtomicBoolean(false);
+        this.key = null;
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        this.encryption = null;
+        this.decryption = null;
+    }
+
+    public SocketChannel getSocketChannel() {
+        return socketChannel;
+    }
+
+    public EventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return eventLoop;
+    }
+
+    public OutboundQueue getOutboundQueue() {
+        return writeQueue;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void setEncryption(PacketCipher encryption, PacketCipher decryption) {
+        this.encryption = encryption;
+        this.decryption = decryption;
+    }
+
+    protected void register() {
+        eventLoop.execute(() -> {
+            try {
+                socketChannel.configureBlocking(false);
+                key = socketChannel.register(eventLoop.getSelector(), SelectionKey.OP_READ, this);
+                connection.handleOpen(new DataInputStream(frameInput), new DataOutputStream(frameOutput));
+            } catch (IOException e) {
+                close();
+            }
+        });
+    }
+
+    protected void handleRead() {
+        try {
+            int readStart = readBuffer.position();
+            int read = socketChannel.read(readBuffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+            if (decryption != null) {
+                decryption.process(readBuffer.array(), readBuffer.arrayOffset() + readStart, read);
+            }
+            readBuffer.flip();
+            int pendingFrameLength = 0;
+            if (connection.isAwaitingProxyHeader() && !connection.handleProxyHeader(readBuffer) && readBuffer.remaining() == readBuffer.capacity()) {
+                pendingFrameLength = readBuffer.capacity() * 2;
+            }
+            while (!connection.isAwaitingProxyHeader() && readBuffer.hasRemaining() && !closed.get()) {
+                int start = readBuffer.position();
+                int size = readVarInt(readBuffer);
+                if (size < 0) {
+                    readBuffer.position(start);
+                    break;
+                }
+                if (connection.isLegacyPing(size)) {
+                    connection.handleLegacyPing();
+                    close();
+                    return;
+                }
+                if (size > Channel.MAX_FRAME_SIZE) {
+                    throw new IOException("Packet too large (" + size + " bytes)");
+                }
+                if (readBuffer.remaining() < size) {
+                    pendingFrameLength = readBuffer.position() - start + size;
+                    readBuffer.position(start);
+                    break;
+                }
+                int frameStart = readBuffer.position();
+                frameInput.setFrame(readBuffer.array(), readBuffer.arrayOffset() + frameStart, size);
+                readBuffer.position(frameStart + size);
+                PacketCipher cipher = decryption;
+                if (!connection.handleFrame(size)) {
+                    close();
+                    return;
+                }
+                if (cipher == null && decryption != null) {
+                    decryption.process(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(), readBuffer.remaining());
+                }
+            }
+            connection.handleReadComplete();
+            readBuffer.compact();
+            if (pendingFrameLength > readBuffer.capacity()) {
+                ByteBuffer expanded = ByteBuffer.allocate(pendingFrameLength);
+                readBuffer.flip();
+                expanded.put(readBuffer);
+                readBuffer = expanded;
+            }
+        } catch (Exception e) {
+            close();
+        }
+    }
+
+    protected void handleWrite() {
+        flush();
+    }
+
+    protected void write(ByteBuffer buffer) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Connection already closed!");
+        }
+        writeQueue.add(buffer);
+        if (eventLoop.inEventLoop()) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(this::flush);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        if (closed.get()) {
+            return;
+        }
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writeQueue.peek()) != null) {
+                writeQueue.written(socketChannel.write(buffer));
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writeQueue.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException | CancelledKeyException e) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(this::close);
+            return;
+        }
+        if (closed.get()) {
+            return;
+        }
+        try {
+            connection.flush();
+        } catch (Exception ignored) {
+        }
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            ByteBuffer buffer;
+            while (!writeQueue.isCongested() && (buffer = writeQueue.peek()) != null) {
+                writeQueue.written(socketChannel.write(buffer));
+                if (buffer.hasRemaining()) {
+                    break;
+                }
+                writeQueue.poll();
+            }
+        } catch (IOException ignored) {
+        }
+        writeQueue.clear();
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            socketChannel.close();
+        } catch (IOException ignored) {
+        }
+        connection.handleClose();
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int result = 0;
+        for (int numRead = 0; numRead < 5; numRead++) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            byte read = buffer.get();
+            result |= (read & 0b01111111) << (7 * numRead);
+            if ((read & 0b10000000) == 0) {
+                return result;
+            }
+        }
+        throw new RuntimeException("VarInt is too big");
+    }
+
+    private static class FrameInputStream extends InputStream {
+
+        private byte[] frame = new byte[0];
+        private int position = 0;
+        private int limit = 0;
+
+        private void setFrame(byte[] frame, int offset, int length) {
+            this.frame = frame;
+            this.position = offset;
+            this.limit = offset + length;
+        }
+
+        @Override
+        public int read() {
+            return position < limit ? frame[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= limit) {
+                return -1;
+            }
+            int read = Math.min(len, limit - position);
+            System.arraycopy(frame, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, limit - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+    }
+
+    private class FrameOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.size() > 0) {
+                byte[] bytes = buffer.toByteArray();
+                buffer.reset();
+                if (encryption != null) {
+                    encryption.process(bytes, 0, bytes.length);
+                }
+                NioConnection.this.write(ByteBuffer.wrap(bytes));
+            }
+        }
+
+    }
+
+}
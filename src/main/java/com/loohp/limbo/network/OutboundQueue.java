@@ -0,0 +1,125 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OutboundQueue {
+
+    private final Queue<ByteBuffer> buffers;
+    private final AtomicLong queuedBytes;
+    private final AtomicLong writtenBytes;
+    private final long highWatermark;
+    private final long lowWatermark;
+    private final long maximumBytes;
+    private volatile long congestedSince;
+
+    public OutboundQueue(long highWatermark, long lowWatermark) {
+        this(highWatermark, lowWatermark, Long.MAX_VALUE);
+    }
+
+    public OutboundQueue(long highWatermark, long lowWatermark, long maximumBytes) {
+        this.buffers = new ConcurrentLinkedQueue<>();
+        this.queuedBytes = new AtomicLong();
+        this.writtenBytes = new AtomicLong();
+        this.highWatermark = highWatermark;
+        this.lowWatermark = Math.min(lowWatermark, highWatermark);
+        this.maximumBytes = maximumBytes <= 0 ? Long.MAX_VALUE : Math.max(maximumBytes, highWatermark);
+        this.congestedSince = -1;
+    }
+
+    public long getHighWatermark() {
+        return highWatermark;
+    }
+
+    public long getLowWatermark() {
+        return lowWatermark;
+    }
+
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    public int getQueuedBuffers() {
+        return buffers.size();
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    public boolean isCongested() {
+        return congestedSince >= 0;
+    }
+
+    public boolean isFull() {
+        return queuedBytes.get() >= maximumBytes;
+    }
+
+    public long getCongestedSince() {
+        return congestedSince;
+    }
+
+    public boolean isEmpty() {
+        return buffers.isEmpty();
+    }
+
+    protected void add(ByteBuffer buffer) {
+        buffers.add(buffer);
+        queued(buffer.remaining());
+    }
+
+    protected void queued(int bytes) {
+        long queued = queuedBytes.addAndGet(bytes);
+        if (queued > highWatermark && congestedSince < 0) {
+            congestedSince = System.currentTimeMillis();
+        }
+    }
+
+    protected ByteBuffer peek() {
+        return buffers.peek();
+    }
+
+    protected ByteBuffer poll() {
+        return buffers.poll();
+    }
+
+    protected void written(int bytes) {
+        writtenBytes.addAndGet(bytes);
+        long queued = queuedBytes.addAndGet(-bytes);
+        if (queued <= lowWatermark && congestedSince >= 0) {
+            congestedSince = -1;
+        }
+    }
+
+    protected void clear() {
+        buffers.clear();
+        queuedBytes.set(0);
+        congestedSince = -1;
+    }
+
+}
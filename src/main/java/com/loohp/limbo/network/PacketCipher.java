@@ -0,0 +1,74 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+
+public class PacketCipher {
+
+    private final Cipher cipher;
+
+    private PacketCipher(int mode, SecretKey key) throws GeneralSecurityException {
+        this.cipher = Cipher.getInstance("AES/CFB8/NoPadding");
+        this.cipher.init(mode, key, new IvParameterSpec(key.getEncoded()));
+    }
+
+    public static PacketCipher encryption(SecretKey key) throws GeneralSecurityException {
+        return new PacketCipher(Cipher.ENCRYPT_MODE, key);
+    }
+
+    public static PacketCipher decryption(SecretKey key) throws GeneralSecurityException {
+        return new PacketCipher(Cipher.DECRYPT_MODE, key);
+    }
+
+    public synchronized void process(byte[] data, int offset, int length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        try {
+            cipher.update(data, offset, length, data, offset);
+        } catch (ShortBufferException e) {
+            throw new IOException("Unable to process encrypted data", e);
+        }
+    }
+
+    public synchronized void process(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            return;
+        }
+        if (buffer.hasArray()) {
+            process(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        try {
+            cipher.update(buffer.duplicate(), buffer.duplicate());
+        } catch (ShortBufferException e) {
+            throw new IOException("Unable to process encrypted data", e);
+        }
+    }
+
+}
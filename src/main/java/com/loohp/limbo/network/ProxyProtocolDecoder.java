@@ -0,0 +1,155 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class ProxyProtocolDecoder {
+
+    public static final int MAX_V1_HEADER_LENGTH = 107;
+
+    private static final byte[] V1_PREFIX = "PROXY ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] V2_SIGNATURE = {0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A};
+    private static final int V2_HEADER_LENGTH = 16;
+    private static final int V2_COMMAND_LOCAL = 0x0;
+    private static final int V2_COMMAND_PROXY = 0x1;
+    private static final int V2_FAMILY_INET = 0x1;
+    private static final int V2_FAMILY_INET6 = 0x2;
+
+    private InetSocketAddress sourceAddress;
+
+    public InetSocketAddress getSourceAddress() {
+        return sourceAddress;
+    }
+
+    public boolean decode(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            return false;
+        }
+        byte first = buffer.get(buffer.position());
+        if (first == V1_PREFIX[0]) {
+            return decodeV1(buffer);
+        } else if (first == V2_SIGNATURE[0]) {
+            return decodeV2(buffer);
+        }
+        throw new IOException("Missing PROXY protocol header");
+    }
+
+    private boolean decodeV1(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        int available = buffer.remaining();
+        for (int i = 0; i < Math.min(available, V1_PREFIX.length); i++) {
+            if (buffer.get(start + i) != V1_PREFIX[i]) {
+                throw new IOException("Invalid PROXY protocol v1 header");
+            }
+        }
+        int end = -1;
+        for (int i = V1_PREFIX.length; i < Math.min(available, MAX_V1_HEADER_LENGTH); i++) {
+            if (buffer.get(start + i) == '\n') {
+                if (buffer.get(start + i - 1) != '\r') {
+                    throw new IOException("Invalid PROXY protocol v1 header");
+                }
+                end = i - 1;
+                break;
+            }
+        }
+        if (end < 0) {
+            if (available >= MAX_V1_HEADER_LENGTH) {
+                throw new IOException("PROXY protocol v1 header too long");
+            }
+            return false;
+        }
+        byte[] line = new byte[end];
+        buffer.get(line);
+        buffer.position(buffer.position() + 2);
+        String[] parts = new String(line, StandardCharsets.US_ASCII).split(" ");
+        if (parts.length >= 2 && parts[1].equals("UNKNOWN")) {
+            sourceAddress = null;
+            return true;
+        }
+        if (parts.length != 6 || !(parts[1].equals("TCP4") || parts[1].equals("TCP6"))) {
+            throw new IOException("Invalid PROXY protocol v1 header");
+        }
+        byte[] address;
+        int port;
+        try {
+            address = AddressRange.parseLiteral(parts[2]);
+            port = Integer.parseInt(parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid PROXY protocol v1 header", e);
+        }
+        if (address.length != (parts[1].equals("TCP4") ? 4 : 16) || port < 0 || port > 65535) {
+            throw new IOException("Invalid PROXY protocol v1 header");
+        }
+        sourceAddress = new InetSocketAddress(InetAddress.getByAddress(address), port);
+        return true;
+    }
+
+    private boolean decodeV2(ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        int available = buffer.remaining();
+        for (int i = 0; i < Math.min(available, V2_SIGNATURE.length); i++) {
+            if (buffer.get(start + i) != V2_SIGNATURE[i]) {
+                throw new IOException("Invalid PROXY protocol v2 signature");
+            }
+        }
+        if (available < V2_HEADER_LENGTH) {
+            return false;
+        }
+        int versionCommand = buffer.get(start + 12) & 0xFF;
+        int family = (buffer.get(start + 13) & 0xFF) >> 4;
+        int length = buffer.getShort(start + 14) & 0xFFFF;
+        if (versionCommand >> 4 != 2) {
+            throw new IOException("Unsupported PROXY protocol version " + (versionCommand >> 4));
+        }
+        int command = versionCommand & 0x0F;
+        if (command != V2_COMMAND_LOCAL && command != V2_COMMAND_PROXY) {
+            throw new IOException("Unsupported PROXY protocol command " + command);
+        }
+        if (available < V2_HEADER_LENGTH + length) {
+            return false;
+        }
+        sourceAddress = null;
+        if (command == V2_COMMAND_PROXY) {
+            int offset = start + V2_HEADER_LENGTH;
+            if (family == V2_FAMILY_INET && length >= 12) {
+                sourceAddress = readAddress(buffer, offset, 4, offset + 8);
+            } else if (family == V2_FAMILY_INET6 && length >= 36) {
+                sourceAddress = readAddress(buffer, offset, 16, offset + 32);
+            }
+        }
+        buffer.position(start + V2_HEADER_LENGTH + length);
+        return true;
+    }
+
+    private static InetSocketAddress readAddress(ByteBuffer buffer, int offset, int length, int portOffset) throws IOException {
+        byte[] address = new byte[length];
+        for (int i = 0; i < length; i++) {
+            address[i] = buffer.get(offset + i);
+        }
+        return new InetSocketAddress(InetAddress.getByAddress(address), buffer.getShort(portOffset) & 0xFFFF);
+    }
+
+}
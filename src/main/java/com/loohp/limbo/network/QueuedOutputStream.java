@@ -0,0 +1,134 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class QueuedOutputStream extends OutputStream {
+
+    private final OutputStream output;
+    private final OutboundQueue queue;
+    private final Executor executor;
+    private final ByteArrayOutputStream buffer;
+    private final AtomicBoolean drainScheduled;
+    private volatile boolean closing;
+    private volatile IOException failure;
+    private volatile PacketCipher encryption;
+
+    public QueuedOutputStream(OutputStream output, OutboundQueue queue, Executor executor) {
+        this.output = output;
+        this.queue = queue;
+        this.executor = executor;
+        this.buffer = new ByteArrayOutputStream();
+        this.drainScheduled = new AtomicBoolean(false);
+        this.closing = false;
+        this.failure = null;
+        this.encryption = null;
+    }
+
+    public OutboundQueue getQueue() {
+        return queue;
+    }
+
+    protected void setEncryption(PacketCipher encryption) {
+        this.encryption = encryption;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closing) {
+            if (buffer.size() == 0) {
+                return;
+            }
+            throw new IOException("Connection already closed!");
+        }
+        if (buffer.size() > 0) {
+            byte[] bytes = buffer.toByteArray();
+            buffer.reset();
+            if (encryption != null) {
+                encryption.process(bytes, 0, bytes.length);
+            }
+            queue.add(ByteBuffer.wrap(bytes));
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closing) {
+            return;
+        }
+        flush();
+        closing = true;
+        if (queue.isCongested()) {
+            queue.clear();
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            ByteBuffer bytes;
+            while ((bytes = queue.poll()) != null) {
+                output.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                queue.written(bytes.remaining());
+            }
+            output.flush();
+        } catch (IOException e) {
+            failure = e;
+            queue.clear();
+            closing = true;
+        }
+        drainScheduled.set(false);
+        if (!queue.isEmpty() && failure == null) {
+            scheduleDrain();
+        } else if (closing) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+}
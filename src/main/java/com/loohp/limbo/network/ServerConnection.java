@@ -19,51 +19,361 @@
 
 package com.loohp.limbo.network;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.KeyPair;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.loohp.limbo.Limbo;
+import com.loohp.limbo.file.ServerProperties;
+import com.loohp.limbo.utils.EncryptionUtils;
+import com.loohp.limbo.utils.NetworkUtils;
+import com.loohp.limbo.utils.VirtualThreadUtils;
 
 public class ServerConnection extends Thread {
 	
+	private static final String NETTY_TRANSPORT_CLASS = "com.loohp.limbo.network.NettyServerTransport";
+	
 	private ServerSocket serverSocket;
-	private List<ClientConnection> clients;
+	private ClientRegistry clients;
 	private String ip;
 	private int port;
+	private EventLoop[] eventLoops;
+	private ExecutorService workerExecutor;
+	private ExecutorService outboundExecutor;
+	private NetworkStatistics statistics;
+	private ThreadFactory clientThreadFactory;
+	private KeepAliveScheduler keepAliveScheduler;
+	private ReadTimeoutScheduler readTimeoutScheduler;
+	private StatusResponseCache statusResponseCache;
+	private AdmissionController admissionController;
+	private KeyPair keyPair;
+	private volatile SessionVerifier sessionVerifier;
+	private List<AddressRange> proxyProtocolTrusted;
+	private List<ServerListener> listeners;
+	private Executor connectionExecutor;
+	private final AtomicInteger nextEventLoop = new AtomicInteger();
 
 	public ServerConnection(String ip, int port) {
-		clients = new ArrayList<ClientConnection>();
+		clients = new ClientRegistry();
+		statistics = new NetworkStatistics();
+		statusResponseCache = new StatusResponseCache();
+		if (Limbo.getInstance().getServerProperties().isNetworkVirtualThreads()) {
+			if (VirtualThreadUtils.isSupported()) {
+				clientThreadFactory = VirtualThreadUtils.createFactory("Limbo Client #");
+				workerExecutor = Executors.newCachedThreadPool(VirtualThreadUtils.createFactory("Limbo Network Worker #"));
+				outboundExecutor = Executors.newCachedThreadPool(VirtualThreadUtils.createFactory("Limbo Network Writer #"));
+			} else {
+				Limbo.getInstance().getConsole().sendMessage("Virtual threads are not supported on this Java version, using platform threads instead");
+			}
+		}
+		if (workerExecutor == null) {
+			workerExecutor = Executors.newCachedThreadPool();
+		}
+		if (outboundExecutor == null) {
+			int outboundThreads = Limbo.getInstance().getServerProperties().getNetworkOutboundThreads();
+			outboundExecutor = Executors.newFixedThreadPool(outboundThreads > 0 ? outboundThreads : Runtime.getRuntime().availableProcessors());
+		}
+		if (clientThreadFactory == null) {
+			connectionExecutor = Executors.newCachedThreadPool();
+		} else {
+			connectionExecutor = task -> clientThreadFactory.newThread(task).start();
+		}
+		ServerProperties properties = Limbo.getInstance().getServerProperties();
+		keepAliveScheduler = new KeepAliveScheduler(properties.getNetworkKeepAliveInterval(), properties.getNetworkKeepAliveTimeout());
+		readTimeoutScheduler = new ReadTimeoutScheduler(properties.getNetworkHandshakeTimeout(), properties.getNetworkStatusTimeout(), properties.getNetworkLoginTimeout(), properties.getNetworkPlayIdleTimeout(), statistics);
+		if (properties.isOnlineMode()) {
+			keyPair = EncryptionUtils.generateKeyPair();
+		}
+		sessionVerifier = new MojangSessionVerifier();
+		admissionController = new AdmissionController(properties.getNetworkHandshakesPerMinute(), properties.getNetworkStatusPingsPerMinute(), properties.getNetworkLoginsPerMinute(), properties.getNetworkMaxConcurrentLogins(), statistics);
+		proxyProtocolTrusted = new ArrayList<AddressRange>();
+		if (properties.isNetworkProxyProtocol()) {
+			for (String range : properties.getNetworkProxyProtocolTrusted()) {
+				try {
+					proxyProtocolTrusted.add(AddressRange.parse(range));
+				} catch (IllegalArgumentException e) {
+					Limbo.getInstance().getConsole().sendMessage("Ignoring invalid network-proxy-protocol-trusted entry \"" + range + "\": " + e.getMessage());
+				}
+			}
+		}
 		this.ip = ip;
 		this.port = port;
+		listeners = new ArrayList<ServerListener>();
+		listeners.add(new ServerListener(0, new InetSocketAddress(ip, port)));
+		for (String entry : properties.getNetworkListeners()) {
+			try {
+				listeners.add(new ServerListener(listeners.size(), parseListenerAddress(entry)));
+			} catch (IllegalArgumentException e) {
+				Limbo.getInstance().getConsole().sendMessage("Ignoring invalid network-listeners entry \"" + entry + "\": " + e.getMessage());
+			}
+		}
 		start();
 	}
 	
 	@Override
 	public void run() {
+		ServerProperties properties = Limbo.getInstance().getServerProperties();
+		int acceptThreads = Math.max(1, properties.getNetworkAcceptThreads());
 		try {
-			serverSocket = new ServerSocket(port, 50, InetAddress.getByName(ip));
-			Limbo.getInstance().getConsole().sendMessage("Limbo server listening on /" + serverSocket.getInetAddress().getHostName() + ":" + serverSocket.getLocalPort());
-	        while (true) {
-	            Socket connection = serverSocket.accept();
-	            ClientConnection sc = new ClientConnection(connection);
-	            clients.add(sc);
-	            sc.start();
-	        }
+			if (properties.getNetworkTransport().equalsIgnoreCase("netty")) {
+				runNetty(properties.getNetworkEventLoopThreads(), acceptThreads);
+			} else if (properties.getNetworkTransport().equalsIgnoreCase("nio")) {
+				runNonBlocking(properties.getNetworkEventLoopThreads(), acceptThreads);
+			} else {
+				runBlocking(acceptThreads);
+			}
 	    } catch(IOException e) {
 	        e.printStackTrace();
 	    }
 	}
+	
+	private void runBlocking(int acceptThreads) throws IOException {
+		for (ServerListener listener : listeners) {
+			ServerSocket[] sockets = bindBlocking(listener, acceptThreads);
+			if (serverSocket == null) {
+				serverSocket = sockets[0];
+			}
+			Limbo.getInstance().getConsole().sendMessage("Limbo server listening on " + listener + describeAcceptThreads(sockets));
+			for (int i = 0; i < sockets.length; i++) {
+				ServerSocket socket = sockets[i];
+				new Thread(() -> acceptBlocking(listener, socket), "Limbo Listener #" + listener.getId() + "-" + i).start();
+			}
+		}
+	}
+	
+	private ServerSocket[] bindBlocking(ServerListener listener, int acceptThreads) throws IOException {
+		int backlog = Limbo.getInstance().getServerProperties().getNetworkAcceptBacklog();
+		ServerSocket[] sockets = new ServerSocket[acceptThreads];
+		for (int i = 0; i < acceptThreads; i++) {
+			ServerSocket socket = new ServerSocket();
+			if (acceptThreads > 1 && !NetworkUtils.setReusePort(socket)) {
+				socket.bind(listener.getAddress(), backlog);
+				Arrays.fill(sockets, socket);
+				return sockets;
+			}
+			socket.bind(listener.getAddress(), backlog);
+			sockets[i] = socket;
+		}
+		return sockets;
+	}
+	
+	private void acceptBlocking(ServerListener listener, ServerSocket socket) {
+		while (!socket.isClosed()) {
+			try {
+				Socket connection = socket.accept();
+				if (!admit(listener, connection.getInetAddress())) {
+					closeQuietly(connection);
+					continue;
+				}
+				ClientConnection sc = new ClientConnection(connection);
+				if (isProxyProtocolTrusted(connection.getInetAddress())) {
+					sc.expectProxyHeader();
+				}
+				clients.add(sc);
+				connectionExecutor.execute(sc);
+			} catch (IOException e) {
+				if (!socket.isClosed()) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+	
+	private void runNonBlocking(int threads, int acceptThreads) throws IOException {
+		if (threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		eventLoops = new EventLoop[threads];
+		for (int i = 0; i < threads; i++) {
+			eventLoops[i] = new EventLoop(i);
+			eventLoops[i].start();
+		}
+		for (ServerListener listener : listeners) {
+			ServerSocketChannel[] channels = bindNonBlocking(listener, acceptThreads);
+			if (serverSocket == null) {
+				serverSocket = channels[0].socket();
+			}
+			Limbo.getInstance().getConsole().sendMessage("Limbo server listening on " + listener + describeAcceptThreads(channels) + " using " + threads + " event loop threads");
+			for (int i = 0; i < channels.length; i++) {
+				ServerSocketChannel channel = channels[i];
+				new Thread(() -> acceptNonBlocking(listener, channel), "Limbo Listener #" + listener.getId() + "-" + i).start();
+			}
+		}
+	}
+	
+	private ServerSocketChannel[] bindNonBlocking(ServerListener listener, int acceptThreads) throws IOException {
+		int backlog = Limbo.getInstance().getServerProperties().getNetworkAcceptBacklog();
+		ServerSocketChannel[] channels = new ServerSocketChannel[acceptThreads];
+		for (int i = 0; i < acceptThreads; i++) {
+			ServerSocketChannel channel = ServerSocketChannel.open();
+			if (acceptThreads > 1 && !NetworkUtils.setReusePort(channel)) {
+				channel.bind(listener.getAddress(), backlog);
+				Arrays.fill(channels, channel);
+				return channels;
+			}
+			channel.bind(listener.getAddress(), backlog);
+			channels[i] = channel;
+		}
+		return channels;
+	}
+	
+	private void acceptNonBlocking(ServerListener listener, ServerSocketChannel serverChannel) {
+		while (serverChannel.isOpen()) {
+			try {
+				SocketChannel connection = serverChannel.accept();
+				if (!admit(listener, connection.socket().getInetAddress())) {
+					closeQuietly(connection);
+					continue;
+				}
+				ClientConnection sc = new ClientConnection(connection, eventLoops[Math.floorMod(nextEventLoop.getAndIncrement(), eventLoops.length)]);
+				if (isProxyProtocolTrusted(connection.socket().getInetAddress())) {
+					sc.expectProxyHeader();
+				}
+				clients.add(sc);
+				sc.getNioConnection().register();
+			} catch (IOException e) {
+				if (serverChannel.isOpen()) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+	
+	private static String describeAcceptThreads(Object[] sockets) {
+		if (sockets.length <= 1) {
+			return "";
+		}
+		return " with " + sockets.length + " accept threads" + (sockets[0] != sockets[1] ? " (SO_REUSEPORT)" : "");
+	}
+
+	private void runNetty(int threads, int acceptThreads) throws IOException {
+		ServerTransport transport;
+		try {
+			transport = (ServerTransport) Class.forName(NETTY_TRANSPORT_CLASS).getConstructor(ServerConnection.class).newInstance(this);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			Limbo.getInstance().getConsole().sendMessage("The netty transport is not included in this build, using the nio transport instead");
+			runNonBlocking(threads, acceptThreads);
+			return;
+		}
+		transport.run(listeners, acceptThreads, threads);
+	}
+
+	protected boolean admit(ServerListener listener, InetAddress address) {
+		if (isProxyForwarding() || isProxyProtocolTrusted(address) || admissionController.tryHandshake(address)) {
+			listener.recordAccepted();
+			return true;
+		}
+		listener.recordRejected();
+		return false;
+	}
+	
+	private static InetSocketAddress parseListenerAddress(String entry) {
+		entry = entry.trim();
+		int separator = entry.lastIndexOf(':');
+		if (separator < 0) {
+			throw new IllegalArgumentException("Missing port");
+		}
+		String host = entry.substring(0, separator);
+		if (host.startsWith("[") && host.endsWith("]")) {
+			host = host.substring(1, host.length() - 1);
+		}
+		return new InetSocketAddress(host, Integer.parseInt(entry.substring(separator + 1)));
+	}
+	
+	protected boolean isProxyProtocolTrusted(InetAddress address) {
+		for (AddressRange range : proxyProtocolTrusted) {
+			if (range.contains(address)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static void closeQuietly(Closeable connection) {
+		try {
+			connection.close();
+		} catch (IOException ignored) {
+		}
+	}
+	
+	protected boolean isProxyForwarding() {
+		ServerProperties properties = Limbo.getInstance().getServerProperties();
+		return properties.isBungeecord() || properties.isBungeeGuard() || properties.isVelocityModern();
+	}
 
 	public ServerSocket getServerSocket() {
 		return serverSocket;
 	}
 
-	public List<ClientConnection> getClients() {
+	public ClientRegistry getClients() {
 		return clients;
 	}
+	
+	public List<ServerListener> getListeners() {
+		return Collections.unmodifiableList(listeners);
+	}
+	
+	public EventLoop[] getEventLoops() {
+		return eventLoops;
+	}
+	
+	public ExecutorService getWorkerExecutor() {
+		return workerExecutor;
+	}
+	
+	public ExecutorService getOutboundExecutor() {
+		return outboundExecutor;
+	}
+	
+	public boolean isUsingVirtualThreads() {
+		return clientThreadFactory != null;
+	}
+	
+	public KeepAliveScheduler getKeepAliveScheduler() {
+		return keepAliveScheduler;
+	}
+	
+	public ReadTimeoutScheduler getReadTimeoutScheduler() {
+		return readTimeoutScheduler;
+	}
+	
+	public StatusResponseCache getStatusResponseCache() {
+		return statusResponseCache;
+	}
+	
+	public AdmissionController getAdmissionController() {
+		return admissionController;
+	}
+	
+	public KeyPair getKeyPair() {
+		return keyPair;
+	}
+	
+	public SessionVerifier getSessionVerifier() {
+		return sessionVerifier;
+	}
+	
+	public void setSessionVerifier(SessionVerifier sessionVerifier) {
+		this.sessionVerifier = sessionVerifier;
+	}
+	
+	public NetworkStatistics getStatistics() {
+		return statistics;
+	}
 
 }
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ServerListener {
+
+    private static final long RATE_WINDOW = 5000;
+
+    private final int id;
+    private final InetSocketAddress address;
+    private final AtomicLong acceptedConnections;
+    private final AtomicLong rejectedConnections;
+    private final AtomicLong windowStart;
+    private final AtomicLong windowAccepted;
+    private volatile double acceptRate;
+
+    public ServerListener(int id, InetSocketAddress address) {
+        this.id = id;
+        this.address = address;
+        this.acceptedConnections = new AtomicLong();
+        this.rejectedConnections = new AtomicLong();
+        this.windowStart = new AtomicLong(System.currentTimeMillis());
+        this.windowAccepted = new AtomicLong();
+        this.acceptRate = 0;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    public long getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    public long getRejectedConnections() {
+        return rejectedConnections.get();
+    }
+
+    public double getAcceptRate() {
+        long start = windowStart.get();
+        long elapsed = System.currentTimeMillis() - start;
+        if (elapsed >= RATE_WINDOW) {
+            return windowAccepted.get() * 1000.0 / elapsed;
+        }
+        return acceptRate;
+    }
+
+    protected void recordAccepted() {
+        acceptedConnections.incrementAndGet();
+        windowAccepted.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= RATE_WINDOW && windowStart.compareAndSet(start, now)) {
+            acceptRate = windowAccepted.getAndSet(0) * 1000.0 / (now - start);
+        }
+    }
+
+    protected void recordRejected() {
+        rejectedConnections.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "/" + address.getHostString() + ":" + address.getPort();
+    }
+
+}
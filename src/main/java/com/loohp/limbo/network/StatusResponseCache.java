@@ -0,0 +1,97 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.loohp.limbo.Limbo;
+import com.loohp.limbo.network.protocol.packets.CachedPacketOut;
+import com.loohp.limbo.network.protocol.packets.PacketOut;
+import com.loohp.limbo.network.protocol.packets.PacketStatusOutResponse;
+
+import net.kyori.adventure.text.Component;
+
+public class StatusResponseCache {
+
+	private volatile Entry entry;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+
+	public StatusResponseCache() {
+		this.entry = null;
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+	}
+
+	public PacketOut getResponse(String version, int protocol, Component motd, int maxPlayers, int playersOnline, BufferedImage favicon) throws IOException {
+		Entry current = entry;
+		if (current != null && current.matches(version, protocol, motd, maxPlayers, playersOnline, favicon)) {
+			hits.incrementAndGet();
+			return current.packet;
+		}
+		misses.incrementAndGet();
+		String json = Limbo.getInstance().buildServerListResponseJson(version, protocol, motd, maxPlayers, playersOnline, favicon);
+		CachedPacketOut packet = new CachedPacketOut(new PacketStatusOutResponse(json));
+		entry = new Entry(version, protocol, motd, maxPlayers, playersOnline, favicon, packet);
+		return packet;
+	}
+
+	public void invalidate() {
+		entry = null;
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private static class Entry {
+
+		private final String version;
+		private final int protocol;
+		private final Component motd;
+		private final int maxPlayers;
+		private final int playersOnline;
+		private final BufferedImage favicon;
+		private final CachedPacketOut packet;
+
+		private Entry(String version, int protocol, Component motd, int maxPlayers, int playersOnline, BufferedImage favicon, CachedPacketOut packet) {
+			this.version = version;
+			this.protocol = protocol;
+			this.motd = motd;
+			this.maxPlayers = maxPlayers;
+			this.playersOnline = playersOnline;
+			this.favicon = favicon;
+			this.packet = packet;
+		}
+
+		private boolean matches(String version, int protocol, Component motd, int maxPlayers, int playersOnline, BufferedImage favicon) {
+			return this.protocol == protocol && this.maxPlayers == maxPlayers && this.playersOnline == playersOnline && this.favicon == favicon && Objects.equals(this.version, version) && Objects.equals(this.motd, motd);
+		}
+
+	}
+
+}
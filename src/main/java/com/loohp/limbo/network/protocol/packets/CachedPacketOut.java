@@ -0,0 +1,141 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.zip.Deflater;
+
+public class CachedPacketOut extends PacketOut {
+	
+	private final Callable<? extends PacketOut> packetSupplier;
+	private volatile PacketOut packet;
+	private volatile byte[] serializedPacket;
+	private volatile byte[] compressedPacket;
+	
+	public CachedPacketOut(Callable<? extends PacketOut> packetSupplier) {
+		this.packetSupplier = packetSupplier;
+		this.packet = null;
+		this.serializedPacket = null;
+		this.compressedPacket = null;
+	}
+	
+	public CachedPacketOut(PacketOut packet) {
+		this(() -> packet);
+	}
+	
+	public synchronized void invalidate() {
+		packet = null;
+		serializedPacket = null;
+		compressedPacket = null;
+	}
+	
+	public boolean isValid() {
+		return serializedPacket != null;
+	}
+	
+	public PacketOut getPacket() throws IOException {
+		PacketOut created = packet;
+		if (created == null) {
+			synchronized (this) {
+				created = packet;
+				if (created == null) {
+					try {
+						packet = created = packetSupplier.call();
+					} catch (IOException e) {
+						throw e;
+					} catch (Exception e) {
+						throw new IOException("Unable to create cached packet", e);
+					}
+				}
+			}
+		}
+		return created;
+	}
+	
+	@Override
+	public boolean isDroppable() {
+		try {
+			return getPacket().isDroppable();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	public ByteBuffer getSerializedPacket() throws IOException {
+		return ByteBuffer.wrap(getSerializedBytes()).asReadOnlyBuffer();
+	}
+	
+	public ByteBuffer getCompressedPacket() throws IOException {
+		byte[] compressed = compressedPacket;
+		if (compressed == null) {
+			synchronized (this) {
+				compressed = compressedPacket;
+				if (compressed == null) {
+					compressedPacket = compressed = compress(getSerializedBytes());
+				}
+			}
+		}
+		return ByteBuffer.wrap(compressed).asReadOnlyBuffer();
+	}
+	
+	@Override
+	public void serialize(PacketBuffer output) throws IOException {
+		output.write(getSerializedBytes());
+	}
+	
+	@Override
+	public byte[] serializePacket() throws IOException {
+		return getSerializedBytes().clone();
+	}
+	
+	private byte[] getSerializedBytes() throws IOException {
+		byte[] serialized = serializedPacket;
+		if (serialized == null) {
+			synchronized (this) {
+				serialized = serializedPacket;
+				if (serialized == null) {
+					serializedPacket = serialized = getPacket().serializePacket();
+				}
+			}
+		}
+		return serialized;
+	}
+	
+	private static byte[] compress(byte[] data) {
+		Deflater deflater = new Deflater();
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length);
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished()) {
+				int length = deflater.deflate(chunk);
+				buffer.write(chunk, 0, length);
+			}
+			return buffer.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+}
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 public class ClientboundClearTitlesPacket extends PacketOut {
@@ -36,14 +34,9 @@ public class ClientboundClearTitlesPacket extends PacketOut {
 	}
 
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		output.writeBoolean(reset);
-		
-		return buffer.toByteArray();
 	}
 
 }
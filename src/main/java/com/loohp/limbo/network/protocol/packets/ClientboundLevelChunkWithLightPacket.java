@@ -49,10 +49,10 @@ public class ClientboundLevelChunkWithLightPacket extends PacketOut {
 	private long[] blockLightBitMasks;
 	private long[] skyLightBitMasksEmpty;
 	private long[] blockLightBitMasksEmpty;
-	private List<Byte[]> skylightArrays;
-	private List<Byte[]> blocklightArrays;
+	private List<byte[]> skylightArrays;
+	private List<byte[]> blocklightArrays;
 
-	public ClientboundLevelChunkWithLightPacket(int chunkX, int chunkZ, Chunk chunk, Environment environment, boolean trustEdges, List<Byte[]> skylightArrays, List<Byte[]> blocklightArrays) {
+	public ClientboundLevelChunkWithLightPacket(int chunkX, int chunkZ, Chunk chunk, Environment environment, boolean trustEdges, List<byte[]> skylightArrays, List<byte[]> blocklightArrays) {
 		this.chunkX = chunkX;
 		this.chunkZ = chunkZ;
 		this.chunk = chunk;
@@ -108,20 +108,17 @@ public class ClientboundLevelChunkWithLightPacket extends PacketOut {
 		return blockLightBitMasks;
 	}
 
-	public List<Byte[]> getSkylightArrays() {
+	public List<byte[]> getSkylightArrays() {
 		return skylightArrays;
 	}
 
-	public List<Byte[]> getBlocklightArrays() {
+	public List<byte[]> getBlocklightArrays() {
 		return blocklightArrays;
 	}
 
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 
 		output.writeInt(chunkX);
 		output.writeInt(chunkZ);
@@ -278,29 +275,21 @@ public class ClientboundLevelChunkWithLightPacket extends PacketOut {
 
 		DataTypeIO.writeVarInt(output, skylightArrays.stream().mapToInt(each -> each == null ? 0 : 1).sum());
 		for (int i = skylightArrays.size() - 1; i >= 0; i--) {
-			Byte[] array = skylightArrays.get(i);
+			byte[] array = skylightArrays.get(i);
 			if (array != null) {
-				DataTypeIO.writeVarInt(output, 2048);
-				//System.out.println(Arrays.toString(ArrayUtils.toPrimitive(array)));
-				for (int u = 0; u < array.length; u++) {
-					output.writeByte(array[u]);
-				}
+				DataTypeIO.writeVarInt(output, array.length);
+				output.write(array);
 			}
 		}
 
 		DataTypeIO.writeVarInt(output, blocklightArrays.stream().mapToInt(each -> each == null ? 0 : 1).sum());
 		for (int i = blocklightArrays.size() - 1; i >= 0; i--) {
-			Byte[] array = blocklightArrays.get(i);
+			byte[] array = blocklightArrays.get(i);
 			if (array != null) {
-				DataTypeIO.writeVarInt(output, 2048);
-				//System.out.println(Arrays.toString(ArrayUtils.toPrimitive(array)));
-				for (int u = 0; u < array.length; u++) {
-					output.writeByte(array[u]);
-				}
+				DataTypeIO.writeVarInt(output, array.length);
+				output.write(array);
 			}
 		}
-
-		return buffer.toByteArray();
 	}
 
 }
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 public class ClientboundSetTitlesAnimationPacket extends PacketOut {
@@ -48,17 +46,12 @@ public class ClientboundSetTitlesAnimationPacket extends PacketOut {
 	}
 
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		
 		output.writeInt(fadeIn);
 		output.writeInt(stay);
 		output.writeInt(fadeOut);
-		
-		return buffer.toByteArray();
 	}
 
 }
@@ -16,78 +16,76 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.loohp.limbo.network.protocol.packets;
 
 import java.util.Map;
 
 public class Packet {
 
-	private static Map<Integer, Class<? extends PacketIn>> handshakeIn;
-
-	private static Map<Integer, Class<? extends PacketIn>> statusIn;
-	private static Map<Class<? extends PacketOut>, Integer> statusOut;
+	private static PacketRegistry registry = PacketRegistry.EMPTY;
 
-	private static Map<Integer, Class<? extends PacketIn>> loginIn;
-	private static Map<Class<? extends PacketOut>, Integer> loginOut;
+	public static PacketRegistry getRegistry() {
+		return registry;
+	}
 
-	private static Map<Integer, Class<? extends PacketIn>> playIn;
-	private static Map<Class<? extends PacketOut>, Integer> playOut;
+	public static void setRegistry(PacketRegistry registry) {
+		Packet.registry = registry;
+	}
 
 	public static Map<Integer, Class<? extends PacketIn>> getHandshakeIn() {
-		return handshakeIn;
+		return registry.getHandshakeIn().getMappings();
 	}
 
-	public static void setHandshakeIn(Map<Integer, Class<? extends PacketIn>> handshakeIn) {
-		Packet.handshakeIn = handshakeIn;
+	public static PacketDecoder getHandshakeInDecoder(int packetId) {
+		return registry.getHandshakeIn().getDecoder(packetId);
 	}
 
 	public static Map<Integer, Class<? extends PacketIn>> getStatusIn() {
-		return statusIn;
+		return registry.getStatusIn().getMappings();
 	}
 
-	public static void setStatusIn(Map<Integer, Class<? extends PacketIn>> statusIn) {
-		Packet.statusIn = statusIn;
+	public static PacketDecoder getStatusInDecoder(int packetId) {
+		return registry.getStatusIn().getDecoder(packetId);
 	}
 
 	public static Map<Class<? extends PacketOut>, Integer> getStatusOut() {
-		return statusOut;
+		return registry.getStatusOut().getMappings();
 	}
 
-	public static void setStatusOut(Map<Class<? extends PacketOut>, Integer> statusOut) {
-		Packet.statusOut = statusOut;
+	public static int getStatusOutId(Class<? extends PacketOut> type) {
+		return registry.getStatusOut().getId(type);
 	}
 
 	public static Map<Integer, Class<? extends PacketIn>> getLoginIn() {
-		return loginIn;
+		return registry.getLoginIn().getMappings();
 	}
 
-	public static void setLoginIn(Map<Integer, Class<? extends PacketIn>> loginIn) {
-		Packet.loginIn = loginIn;
+	public static PacketDecoder getLoginInDecoder(int packetId) {
+		return registry.getLoginIn().getDecoder(packetId);
 	}
 
 	public static Map<Class<? extends PacketOut>, Integer> getLoginOut() {
-		return loginOut;
+		return registry.getLoginOut().getMappings();
 	}
 
-	public static void setLoginOut(Map<Class<? extends PacketOut>, Integer> loginOut) {
-		Packet.loginOut = loginOut;
+	public static int getLoginOutId(Class<? extends PacketOut> type) {
+		return registry.getLoginOut().getId(type);
 	}
 
 	public static Map<Integer, Class<? extends PacketIn>> getPlayIn() {
-		return playIn;
+		return registry.getPlayIn().getMappings();
 	}
 
-	public static void setPlayIn(Map<Integer, Class<? extends PacketIn>> playIn) {
-		Packet.playIn = playIn;
+	public static PacketDecoder getPlayInDecoder(int packetId) {
+		return registry.getPlayIn().getDecoder(packetId);
 	}
 
 	public static Map<Class<? extends PacketOut>, Integer> getPlayOut() {
-		return playOut;
+		return registry.getPlayOut().getMappings();
 	}
 
-	public static void setPlayOut(Map<Class<? extends PacketOut>, Integer> playOut) {
-		Packet.playOut = playOut;
+	public static int getPlayOutId(Class<? extends PacketOut> type) {
+		return registry.getPlayOut().getId(type);
 	}
 
 }
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PacketBuffer extends DataOutputStream {
+	
+	public static final int DEFAULT_HEADER_SIZE = 10;
+	
+	private static final int INITIAL_CAPACITY = 512;
+	private static final int MAXIMUM_POOLED_CAPACITY = 1048576;
+	private static final int MAXIMUM_POOLED_BYTES = 16777216;
+	
+	private static final Queue<PacketBuffer> POOL = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger POOLED_BYTES = new AtomicInteger();
+	
+	public static PacketBuffer allocate() {
+		PacketBuffer buffer = POOL.poll();
+		if (buffer == null) {
+			return new PacketBuffer(new BufferOutput());
+		}
+		POOLED_BYTES.addAndGet(-buffer.bufferOutput.buffer.length);
+		buffer.released = false;
+		return buffer;
+	}
+	
+	public static int getPooledBytes() {
+		return POOLED_BYTES.get();
+	}
+	
+	private final BufferOutput bufferOutput;
+	private boolean released;
+	
+	private PacketBuffer(BufferOutput bufferOutput) {
+		super(bufferOutput);
+		this.bufferOutput = bufferOutput;
+		this.released = false;
+	}
+	
+	public int readableBytes() {
+		return bufferOutput.position - bufferOutput.start;
+	}
+	
+	public void reserveHeader(int headerSize) {
+		if (readableBytes() > 0) {
+			throw new IllegalStateException("Header space can only be reserved on an empty buffer");
+		}
+		bufferOutput.ensureWritable(headerSize);
+		bufferOutput.position = headerSize;
+		bufferOutput.start = headerSize;
+	}
+	
+	public void prependVarInt(int value) {
+		int length = getVarIntLength(value);
+		if (length > bufferOutput.start) {
+			throw new IllegalStateException("Not enough header space reserved to prepend a VarInt of " + length + " bytes");
+		}
+		int index = bufferOutput.start - length;
+		bufferOutput.start = index;
+		do {
+			byte temp = (byte) (value & 0b01111111);
+			value >>>= 7;
+			if (value != 0) {
+				temp |= 0b10000000;
+			}
+			bufferOutput.buffer[index++] = temp;
+		} while (value != 0);
+	}
+	
+	public byte[] array() {
+		return bufferOutput.buffer;
+	}
+	
+	public int arrayOffset() {
+		return bufferOutput.start;
+	}
+	
+	public ByteBuffer nioBuffer() {
+		return ByteBuffer.wrap(bufferOutput.buffer, bufferOutput.start, readableBytes());
+	}
+	
+	public byte[] toByteArray() {
+		return Arrays.copyOfRange(bufferOutput.buffer, bufferOutput.start, bufferOutput.position);
+	}
+	
+	public void writeTo(OutputStream output) throws IOException {
+		output.write(bufferOutput.buffer, bufferOutput.start, readableBytes());
+	}
+	
+	public void clear() {
+		bufferOutput.position = 0;
+		bufferOutput.start = 0;
+		written = 0;
+	}
+	
+	public void release() {
+		if (released) {
+			return;
+		}
+		released = true;
+		clear();
+		int capacity = bufferOutput.buffer.length;
+		if (capacity > MAXIMUM_POOLED_CAPACITY) {
+			return;
+		}
+		if (POOLED_BYTES.addAndGet(capacity) > MAXIMUM_POOLED_BYTES) {
+			POOLED_BYTES.addAndGet(-capacity);
+			return;
+		}
+		POOL.add(this);
+	}
+	
+	private static int getVarIntLength(int value) {
+		int length = 1;
+		while ((value & -128) != 0) {
+			value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+	
+	private static class BufferOutput extends OutputStream {
+		
+		private byte[] buffer;
+		private int position;
+		private int start;
+		
+		private BufferOutput() {
+			this.buffer = new byte[INITIAL_CAPACITY];
+			this.position = 0;
+			this.start = 0;
+		}
+		
+		private void ensureWritable(int length) {
+			if (buffer.length - position >= length) {
+				return;
+			}
+			int capacity = buffer.length;
+			int required = position + length;
+			while (capacity < required) {
+				capacity <<= 1;
+				if (capacity <= 0) {
+					throw new OutOfMemoryError("Packet buffer too large");
+				}
+			}
+			buffer = Arrays.copyOf(buffer, capacity);
+		}
+		
+		@Override
+		public void write(int b) {
+			ensureWritable(1);
+			buffer[position++] = (byte) b;
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) {
+			ensureWritable(len);
+			System.arraycopy(b, off, buffer, position, len);
+			position += len;
+		}
+		
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.stream.Stream;
+
+@FunctionalInterface
+public interface PacketDecoder {
+	
+	PacketIn decode(DataInputStream input, int size, int packetId) throws IOException;
+	
+	static PacketDecoder create(Class<? extends PacketIn> packetType) {
+		Constructor<?> constructor = Stream.of(packetType.getConstructors()).filter(each -> each.getParameterCount() > 0 && each.getParameterTypes()[0].equals(DataInputStream.class)).findFirst().orElse(null);
+		try {
+			if (constructor == null) {
+				throw new NoSuchMethodException(packetType + " has no valid constructors!");
+			}
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle handle = lookup.unreflectConstructor(constructor);
+			if (constructor.getParameterCount() == 1) {
+				SimplePacketDecoder decoder = (SimplePacketDecoder) LambdaMetafactory.metafactory(lookup, "decode", MethodType.methodType(SimplePacketDecoder.class), MethodType.methodType(PacketIn.class, DataInputStream.class), handle, handle.type()).getTarget().invoke();
+				return (input, size, packetId) -> decoder.decode(input);
+			} else if (constructor.getParameterCount() == 3 && constructor.getParameterTypes()[1].equals(int.class) && constructor.getParameterTypes()[2].equals(int.class)) {
+				return (PacketDecoder) LambdaMetafactory.metafactory(lookup, "decode", MethodType.methodType(PacketDecoder.class), MethodType.methodType(PacketIn.class, DataInputStream.class, int.class, int.class), handle, handle.type()).getTarget().invoke();
+			} else {
+				throw new NoSuchMethodException(packetType + " has no valid constructors!");
+			}
+		} catch (Throwable e) {
+			throw new IllegalArgumentException("Unable to create decoder for " + packetType, e);
+		}
+	}
+	
+	@FunctionalInterface
+	interface SimplePacketDecoder {
+		
+		PacketIn decode(DataInputStream input) throws IOException;
+		
+	}
+
+}
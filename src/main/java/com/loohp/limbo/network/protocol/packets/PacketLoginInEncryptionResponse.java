@@ -0,0 +1,90 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+import com.loohp.limbo.utils.DataTypeIO;
+
+public class PacketLoginInEncryptionResponse extends PacketIn {
+
+	private static final int MAX_ARRAY_LENGTH = 512;
+
+	private byte[] sharedSecret;
+	private Optional<byte[]> verifyToken;
+	private long salt;
+	private byte[] signature;
+
+	public PacketLoginInEncryptionResponse(byte[] sharedSecret, byte[] verifyToken) {
+		this.sharedSecret = sharedSecret;
+		this.verifyToken = Optional.of(verifyToken);
+		this.salt = 0;
+		this.signature = null;
+	}
+
+	public PacketLoginInEncryptionResponse(byte[] sharedSecret, long salt, byte[] signature) {
+		this.sharedSecret = sharedSecret;
+		this.verifyToken = Optional.empty();
+		this.salt = salt;
+		this.signature = signature;
+	}
+
+	public PacketLoginInEncryptionResponse(DataInputStream in) throws IOException {
+		this.sharedSecret = readByteArray(in);
+		if (in.readBoolean()) {
+			this.verifyToken = Optional.of(readByteArray(in));
+			this.salt = 0;
+			this.signature = null;
+		} else {
+			this.verifyToken = Optional.empty();
+			this.salt = in.readLong();
+			this.signature = readByteArray(in);
+		}
+	}
+
+	private static byte[] readByteArray(DataInputStream in) throws IOException {
+		int length = DataTypeIO.readVarInt(in);
+		if (length < 0 || length > MAX_ARRAY_LENGTH) {
+			throw new IOException("Bad array length " + length + ", maximum is " + MAX_ARRAY_LENGTH);
+		}
+		byte[] data = new byte[length];
+		in.readFully(data);
+		return data;
+	}
+
+	public byte[] getSharedSecret() {
+		return sharedSecret;
+	}
+
+	public Optional<byte[]> getVerifyToken() {
+		return verifyToken;
+	}
+
+	public long getSalt() {
+		return salt;
+	}
+
+	public byte[] getSignature() {
+		return signature;
+	}
+
+}
@@ -22,15 +22,18 @@ package com.loohp.limbo.network.protocol.packets;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Optional;
 
 import com.loohp.limbo.utils.DataTypeIO;
 
 public class PacketLoginInLoginStart extends PacketIn {
 	
 	private String username;
+	private Optional<byte[]> publicKey;
 	
 	public PacketLoginInLoginStart(String username) {
 		this.username = username;
+		this.publicKey = Optional.empty();
 	}
 	
 	public PacketLoginInLoginStart(DataInputStream in) throws IOException {
@@ -39,9 +42,13 @@ public class PacketLoginInLoginStart extends PacketIn {
 		if (hasSigData) {
 			in.readLong();
 			int publicKeyLength = DataTypeIO.readVarInt(in);
-			in.readFully(new byte[publicKeyLength]);
+			byte[] publicKey = new byte[publicKeyLength];
+			in.readFully(publicKey);
+			this.publicKey = Optional.of(publicKey);
 			int signatureLength = DataTypeIO.readVarInt(in);
 			in.readFully(new byte[signatureLength]);
+		} else {
+			this.publicKey = Optional.empty();
 		}
 	}
 
@@ -49,4 +56,8 @@ public class PacketLoginInLoginStart extends PacketIn {
 		return username;
 	}
 
+	public Optional<byte[]> getPublicKey() {
+		return publicKey;
+	}
+
 }
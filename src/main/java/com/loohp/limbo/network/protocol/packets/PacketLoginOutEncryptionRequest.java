@@ -0,0 +1,61 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.loohp.limbo.utils.DataTypeIO;
+
+public class PacketLoginOutEncryptionRequest extends PacketOut {
+
+	private String serverId;
+	private byte[] publicKey;
+	private byte[] verifyToken;
+
+	public PacketLoginOutEncryptionRequest(String serverId, byte[] publicKey, byte[] verifyToken) {
+		this.serverId = serverId;
+		this.publicKey = publicKey;
+		this.verifyToken = verifyToken;
+	}
+
+	public String getServerId() {
+		return serverId;
+	}
+
+	public byte[] getPublicKey() {
+		return publicKey;
+	}
+
+	public byte[] getVerifyToken() {
+		return verifyToken;
+	}
+
+	@Override
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getLoginOutId(getClass()));
+		DataTypeIO.writeString(output, serverId, StandardCharsets.UTF_8);
+		DataTypeIO.writeVarInt(output, publicKey.length);
+		output.write(publicKey);
+		DataTypeIO.writeVarInt(output, verifyToken.length);
+		output.write(verifyToken);
+	}
+
+}
@@ -16,13 +16,69 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.loohp.limbo.network.protocol.packets;
 
 import java.io.IOException;
 
 public abstract class PacketOut extends Packet {
 	
-	public abstract byte[] serializePacket() throws IOException;
+	private static final ClassValue<Boolean> LEGACY_SERIALIZERS = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> clazz = type; clazz != null && !clazz.equals(PacketOut.class); clazz = clazz.getSuperclass()) {
+				if (declares(clazz, "serialize", PacketBuffer.class)) {
+					return false;
+				}
+				if (declares(clazz, "serializePacket")) {
+					return true;
+				}
+			}
+			return false;
+		}
+	};
+	
+	private static boolean declares(Class<?> clazz, String name, Class<?>... parameterTypes) {
+		try {
+			clazz.getDeclaredMethod(name, parameterTypes);
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	public boolean isDroppable() {
+		return false;
+	}
+	
+	/**
+	 * Writes this packet, including its packet id, to the given pooled buffer.
+	 * <p>
+	 * Packets should override this method. Packets written against the older API that
+	 * only override {@link #serializePacket()} are still supported: their serialized
+	 * bytes are copied into the buffer here. To migrate, move the body of
+	 * {@code serializePacket()} into this method, writing to {@code output} instead of
+	 * a private stream, and drop the {@code serializePacket()} override.
+	 */
+	public void serialize(PacketBuffer output) throws IOException {
+		if (!LEGACY_SERIALIZERS.get(getClass())) {
+			throw new UnsupportedOperationException(getClass().getName() + " does not override serialize(PacketBuffer)");
+		}
+		output.write(serializePacket());
+	}
+	
+	/**
+	 * Returns the serialized bytes of this packet. Kept for existing callers and legacy
+	 * packets; new packets should override {@link #serialize(PacketBuffer)} instead.
+	 */
+	
+	public byte[] serializePacket() throws IOException {
+		PacketBuffer buffer = PacketBuffer.allocate();
+		try {
+			serialize(buffer);
+			return buffer.toByteArray();
+		} finally {
+			buffer.release();
+		}
+	}
 
 }
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 import com.loohp.limbo.utils.DataTypeIO;
@@ -38,17 +36,12 @@ public class PacketPlayOutEntityDestroy extends PacketOut {
 	}
 	
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeVarInt(output, entityIds.length);
 		for (int entityId : entityIds) {
 			DataTypeIO.writeVarInt(output, entityId);
 		}
-		
-		return buffer.toByteArray();
 	}
 
 }
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
@@ -64,13 +62,15 @@ public class PacketPlayOutEntityMetadata extends PacketOut {
 	public Entity getEntity() {
 		return entity;
 	}
+	
+	@Override
+	public boolean isDroppable() {
+		return true;
+	}
 
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeVarInt(output, entity.getEntityId());
 		Collection<WatchableObject> watches;
 		if (allFields) {
@@ -169,8 +169,6 @@ public class PacketPlayOutEntityMetadata extends PacketOut {
 			}
 		}
 		output.writeByte(END_OFF_METADATA);
-		
-		return buffer.toByteArray();
 	}
 
 }
@@ -26,8 +26,6 @@ import com.loohp.limbo.world.Environment;
 import com.loohp.limbo.world.World;
 import net.querz.nbt.tag.CompoundTag;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -39,6 +37,7 @@ public class PacketPlayOutLogin extends PacketOut {
 	private GameMode gamemode;
 	private List<World> worlds;
 	private CompoundTag dimensionCodec;
+	private byte[] serializedDimensionCodec;
 	private Environment dimension;
 	private World world;
 	private long hashedSeed;
@@ -51,11 +50,16 @@ public class PacketPlayOutLogin extends PacketOut {
 	private boolean isFlat;
 
 	public PacketPlayOutLogin(int entityId, boolean isHardcore, GameMode gamemode, List<World> worlds, CompoundTag dimensionCodec, World world, long hashedSeed, byte maxPlayers, int viewDistance, int simulationDistance, boolean reducedDebugInfo, boolean enableRespawnScreen, boolean isDebug, boolean isFlat) {
+		this(entityId, isHardcore, gamemode, worlds, dimensionCodec, null, world, hashedSeed, maxPlayers, viewDistance, simulationDistance, reducedDebugInfo, enableRespawnScreen, isDebug, isFlat);
+	}
+
+	public PacketPlayOutLogin(int entityId, boolean isHardcore, GameMode gamemode, List<World> worlds, CompoundTag dimensionCodec, byte[] serializedDimensionCodec, World world, long hashedSeed, byte maxPlayers, int viewDistance, int simulationDistance, boolean reducedDebugInfo, boolean enableRespawnScreen, boolean isDebug, boolean isFlat) {
 		this.entityId = entityId;
 		this.isHardcore = isHardcore;
 		this.gamemode = gamemode;
 		this.worlds = worlds;
 		this.dimensionCodec = dimensionCodec;
+		this.serializedDimensionCodec = serializedDimensionCodec;
 		this.dimension = world.getEnvironment();
 		this.world = world;
 		this.hashedSeed = hashedSeed;
@@ -129,11 +133,8 @@ public class PacketPlayOutLogin extends PacketOut {
 	}
 	
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		output.writeInt(entityId);
 		output.writeBoolean(isHardcore);
         output.writeByte((byte) gamemode.getId());
@@ -142,7 +143,11 @@ public class PacketPlayOutLogin extends PacketOut {
 		for (int u = 0; u < worlds.size(); u++) {
 			DataTypeIO.writeString(output, new NamespacedKey(worlds.get(u).getName()).toString(), StandardCharsets.UTF_8);
 		}
-		DataTypeIO.writeCompoundTag(output, dimensionCodec);
+		if (serializedDimensionCodec == null) {
+			DataTypeIO.writeCompoundTag(output, dimensionCodec);
+		} else {
+			output.write(serializedDimensionCodec);
+		}
 		DataTypeIO.writeString(output, world.getEnvironment().getNamespacedKey().toString(), StandardCharsets.UTF_8);
 		DataTypeIO.writeString(output, new NamespacedKey(world.getName()).toString(), StandardCharsets.UTF_8);
 		output.writeLong(hashedSeed);
@@ -154,8 +159,6 @@ public class PacketPlayOutLogin extends PacketOut {
 		output.writeBoolean(isDebug);
 		output.writeBoolean(isFlat);
 		output.writeBoolean(false);
-		
-		return buffer.toByteArray();
 	}
 
 }
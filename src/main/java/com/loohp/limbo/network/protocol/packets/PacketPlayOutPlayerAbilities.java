@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 public class PacketPlayOutPlayerAbilities extends PacketOut {
@@ -65,11 +63,8 @@ public class PacketPlayOutPlayerAbilities extends PacketOut {
 	}
 	
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		int value = 0;
 		for (PlayerAbilityFlags flag : flags) {
 			value = value | flag.getValue();
@@ -78,8 +73,6 @@ public class PacketPlayOutPlayerAbilities extends PacketOut {
 		output.writeByte(value);
 		output.writeFloat(flySpeed);
 		output.writeFloat(fieldOfField);
-		
-		return buffer.toByteArray();
 	}
 
 }
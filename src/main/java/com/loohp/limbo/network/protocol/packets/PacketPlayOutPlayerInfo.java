@@ -19,14 +19,13 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
 
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerInfo.PlayerInfoData.PlayerInfoDataAddPlayer;
+import com.loohp.limbo.network.protocol.packets.PacketPlayOutPlayerInfo.PlayerInfoData.PlayerInfoDataUpdateLatency;
 import com.loohp.limbo.utils.DataTypeIO;
 import com.loohp.limbo.utils.GameMode;
 
@@ -69,11 +68,8 @@ public class PacketPlayOutPlayerInfo extends PacketOut {
 	}
 	
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeVarInt(output, action.getId());
 		DataTypeIO.writeVarInt(output, 1);
 		DataTypeIO.writeUUID(output, uuid);
@@ -108,16 +104,29 @@ public class PacketPlayOutPlayerInfo extends PacketOut {
 		case UPDATE_GAMEMODE:
 			break;
 		case UPDATE_LATENCY:
+			DataTypeIO.writeVarInt(output, ((PlayerInfoDataUpdateLatency) this.data).getPing());
 			break;
 		}
-		
-		return buffer.toByteArray();
 	}
 
 	// =========
 
 	public static class PlayerInfoData {
 
+		public static class PlayerInfoDataUpdateLatency extends PlayerInfoData {
+
+			private int ping;
+
+			public PlayerInfoDataUpdateLatency(int ping) {
+				this.ping = ping;
+			}
+
+			public int getPing() {
+				return ping;
+			}
+
+		}
+
 		public static class PlayerInfoDataAddPlayer extends PlayerInfoData {
 
 			private String name;
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -102,11 +100,8 @@ public class PacketPlayOutPositionAndLook extends PacketOut {
 	}
 	
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		output.writeDouble(x);
 		output.writeDouble(y);
 		output.writeDouble(z);
@@ -121,8 +116,6 @@ public class PacketPlayOutPositionAndLook extends PacketOut {
 		output.writeByte(flag);
 		DataTypeIO.writeVarInt(output, teleportId);
 		output.writeBoolean(dismountVehicle);
-		
-		return buffer.toByteArray();
 	}
 
 }
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
@@ -74,11 +72,8 @@ public class PacketPlayOutResourcePackSend extends PacketOut {
 	}
 	
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeString(output, url, StandardCharsets.UTF_8);
 		DataTypeIO.writeString(output, hash, StandardCharsets.UTF_8);
 		output.writeBoolean(isForced);
@@ -86,7 +81,6 @@ public class PacketPlayOutResourcePackSend extends PacketOut {
 		if (hasPromptMessage) {
 			DataTypeIO.writeString(output, GsonComponentSerializer.gson().serialize(promptMessage), StandardCharsets.UTF_8);
 		}
-		return buffer.toByteArray();
 	}
 
 }
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.UUID;
 
@@ -112,11 +110,8 @@ public class PacketPlayOutSpawnEntity extends PacketOut {
 	}
 
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeVarInt(output, entityId);
 		DataTypeIO.writeUUID(output, uuid);
 		DataTypeIO.writeVarInt(output, type.getTypeId());
@@ -130,8 +125,6 @@ public class PacketPlayOutSpawnEntity extends PacketOut {
 		output.writeShort(velocityX * 8000);
 		output.writeShort(velocityY * 8000);
 		output.writeShort(velocityZ * 8000);
-		
-		return buffer.toByteArray();
 	}
 
 }
@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 
 import com.loohp.limbo.utils.DataTypeIO;
@@ -44,15 +42,10 @@ public class PacketPlayOutSpawnPosition extends PacketOut {
 		return angle;
 	}
 	
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeBlockPosition(output, position);
 		output.writeFloat(angle);
-		
-		return buffer.toByteArray();
 	}
 
 }
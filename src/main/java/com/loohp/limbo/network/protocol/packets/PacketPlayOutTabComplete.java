@@ -19,8 +19,6 @@
 
 package com.loohp.limbo.network.protocol.packets;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
@@ -61,11 +59,8 @@ public class PacketPlayOutTabComplete extends PacketOut {
 	}
 
 	@Override
-	public byte[] serializePacket() throws IOException {
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-		
-		DataOutputStream output = new DataOutputStream(buffer);
-		output.writeByte(Packet.getPlayOut().get(getClass()));
+	public void serialize(PacketBuffer output) throws IOException {
+		output.writeByte(Packet.getPlayOutId(getClass()));
 		DataTypeIO.writeVarInt(output, id);
 		DataTypeIO.writeVarInt(output, start);
 		DataTypeIO.writeVarInt(output, length);
@@ -80,8 +75,6 @@ public class PacketPlayOutTabComplete extends PacketOut {
 				output.writeBoolean(false);
 			}
 		}
-		
-		return buffer.toByteArray();
 	}
 
 	public static class TabCompleteMatches {
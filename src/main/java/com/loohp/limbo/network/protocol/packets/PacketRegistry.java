@@ -0,0 +1,159 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class PacketRegistry {
+	
+	public static final PacketRegistry EMPTY = new PacketRegistry(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+	
+	private final InboundTable handshakeIn;
+	private final InboundTable statusIn;
+	private final OutboundTable statusOut;
+	private final InboundTable loginIn;
+	private final OutboundTable loginOut;
+	private final InboundTable playIn;
+	private final OutboundTable playOut;
+	
+	public PacketRegistry(Map<Integer, Class<? extends PacketIn>> handshakeIn, Map<Integer, Class<? extends PacketIn>> statusIn, Map<Class<? extends PacketOut>, Integer> statusOut, Map<Integer, Class<? extends PacketIn>> loginIn, Map<Class<? extends PacketOut>, Integer> loginOut, Map<Integer, Class<? extends PacketIn>> playIn, Map<Class<? extends PacketOut>, Integer> playOut) {
+		this.handshakeIn = new InboundTable(handshakeIn);
+		this.statusIn = new InboundTable(statusIn);
+		this.statusOut = new OutboundTable(statusOut);
+		this.loginIn = new InboundTable(loginIn);
+		this.loginOut = new OutboundTable(loginOut);
+		this.playIn = new InboundTable(playIn);
+		this.playOut = new OutboundTable(playOut);
+	}
+	
+	public InboundTable getHandshakeIn() {
+		return handshakeIn;
+	}
+	
+	public InboundTable getStatusIn() {
+		return statusIn;
+	}
+	
+	public OutboundTable getStatusOut() {
+		return statusOut;
+	}
+	
+	public InboundTable getLoginIn() {
+		return loginIn;
+	}
+	
+	public OutboundTable getLoginOut() {
+		return loginOut;
+	}
+	
+	public InboundTable getPlayIn() {
+		return playIn;
+	}
+	
+	public OutboundTable getPlayOut() {
+		return playOut;
+	}
+	
+	public int size() {
+		return handshakeIn.size() + statusIn.size() + statusOut.size() + loginIn.size() + loginOut.size() + playIn.size() + playOut.size();
+	}
+	
+	public static final class InboundTable {
+		
+		private final Map<Integer, Class<? extends PacketIn>> mappings;
+		private final Class<? extends PacketIn>[] types;
+		private final PacketDecoder[] decoders;
+		
+		@SuppressWarnings("unchecked")
+		private InboundTable(Map<Integer, Class<? extends PacketIn>> mappings) {
+			this.mappings = Collections.unmodifiableMap(new HashMap<>(mappings));
+			int length = mappings.keySet().stream().mapToInt(each -> each + 1).max().orElse(0);
+			this.types = new Class[length];
+			this.decoders = new PacketDecoder[length];
+			for (Map.Entry<Integer, Class<? extends PacketIn>> entry : mappings.entrySet()) {
+				types[entry.getKey()] = entry.getValue();
+				decoders[entry.getKey()] = PacketDecoder.create(entry.getValue());
+			}
+		}
+		
+		public Map<Integer, Class<? extends PacketIn>> getMappings() {
+			return mappings;
+		}
+		
+		public Class<? extends PacketIn> getType(int packetId) {
+			return packetId >= 0 && packetId < types.length ? types[packetId] : null;
+		}
+		
+		public PacketDecoder getDecoder(int packetId) {
+			return packetId >= 0 && packetId < decoders.length ? decoders[packetId] : null;
+		}
+		
+		public int size() {
+			return mappings.size();
+		}
+		
+	}
+	
+	public static final class OutboundTable {
+		
+		private final Map<Class<? extends PacketOut>, Integer> mappings;
+		private final ClassValue<Integer> ids;
+		
+		private OutboundTable(Map<Class<? extends PacketOut>, Integer> mappings) {
+			this.mappings = Collections.unmodifiableMap(new HashMap<>(mappings));
+			this.ids = new ClassValue<Integer>() {
+				@Override
+				protected Integer computeValue(Class<?> type) {
+					for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+						Integer packetId = OutboundTable.this.mappings.get(clazz);
+						if (packetId != null) {
+							return packetId;
+						}
+					}
+					return -1;
+				}
+			};
+		}
+		
+		public Map<Class<? extends PacketOut>, Integer> getMappings() {
+			return mappings;
+		}
+		
+		public boolean contains(Class<? extends PacketOut> type) {
+			return ids.get(type) >= 0;
+		}
+		
+		public int getId(Class<? extends PacketOut> type) {
+			int packetId = ids.get(type);
+			if (packetId < 0) {
+				throw new IllegalArgumentException("No packet id is mapped for " + type.getName());
+			}
+			return packetId;
+		}
+		
+		public int size() {
+			return mappings.size();
+		}
+		
+	}
+
+}
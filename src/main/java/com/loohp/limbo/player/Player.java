@@ -170,6 +170,10 @@ public class Player extends LivingEntity implements CommandSender {
 	public void setMainHand(byte mainHand) {
 		this.mainHand = mainHand;
 	}
+
+	public int getPing() {
+		return clientConnection.getPing();
+	}
 	
 	@Override
 	public DataWatcher getDataWatcher() {
@@ -22,36 +22,40 @@ package com.loohp.limbo.player;
 import com.loohp.limbo.Limbo;
 import com.loohp.limbo.entity.Entity;
 import com.loohp.limbo.location.Location;
-import com.loohp.limbo.network.protocol.packets.ClientboundLevelChunkWithLightPacket;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutEntityDestroy;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutEntityMetadata;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutSpawnEntity;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutUnloadChunk;
-import com.loohp.limbo.world.ChunkPosition;
 import com.loohp.limbo.world.World;
-import net.querz.mca.Chunk;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class PlayerInteractManager {
 	
+	private static final int ENTITY_REFRESH_INTERVAL = 20;
+	
 	private Player player;
 	
 	private Set<Entity> entities;
-	private Map<ChunkPosition, Chunk> currentViewing;
+	private World entityWorld;
+	private double entityX;
+	private double entityY;
+	private double entityZ;
+	private int entityModCount;
+	private int entityRefreshTicks;
+	
+	private World viewWorld;
+	private int viewChunkX;
+	private int viewChunkZ;
+	private int viewDistance;
 	
 	public PlayerInteractManager() {
 		this.player = null;
 		this.entities = new HashSet<>();
-		this.currentViewing = new HashMap<>();
+		this.entityWorld = null;
+		this.viewWorld = null;
 	}
 	
 	protected void setPlayer(Player player) {
@@ -68,9 +72,32 @@ public class PlayerInteractManager {
 	
 	public void update() throws IOException {
 		int viewDistanceChunks = Limbo.getInstance().getServerProperties().getViewDistance();
-		int viewDistanceBlocks = viewDistanceChunks << 4;
 		Location location = player.getLocation();
-		Set<Entity> entitiesInRange = player.getWorld().getEntities().stream().filter(each -> each.getLocation().distanceSquared(location) < viewDistanceBlocks * viewDistanceBlocks).collect(Collectors.toSet());
+		World world = location.getWorld();
+		
+		updateEntities(location, world, viewDistanceChunks);
+		updateChunks(world, (int) location.getX() >> 4, (int) location.getZ() >> 4, viewDistanceChunks);
+	}
+	
+	private void updateEntities(Location location, World world, int viewDistanceChunks) throws IOException {
+		entityRefreshTicks++;
+		if (world.equals(entityWorld) && location.getX() == entityX && location.getY() == entityY && location.getZ() == entityZ && world.getEntityModCount() == entityModCount && entityRefreshTicks < ENTITY_REFRESH_INTERVAL) {
+			return;
+		}
+		entityWorld = world;
+		entityX = location.getX();
+		entityY = location.getY();
+		entityZ = location.getZ();
+		entityModCount = world.getEntityModCount();
+		entityRefreshTicks = 0;
+		
+		int viewDistanceBlocks = viewDistanceChunks << 4;
+		Set<Entity> entitiesInRange = new HashSet<>();
+		for (Entity entity : world.getEntities()) {
+			if (entity.getLocation().distanceSquared(location) < viewDistanceBlocks * viewDistanceBlocks) {
+				entitiesInRange.add(entity);
+			}
+		}
 		for (Entity entity : entitiesInRange) {
 			if (!entities.contains(entity)) {
 				PacketPlayOutSpawnEntity packet = new PacketPlayOutSpawnEntity(entity.getEntityId(), entity.getUniqueId(), entity.getType(), entity.getX(), entity.getY(), entity.getZ(), entity.getYaw(), entity.getPitch(), entity.getPitch(), 0, (short) 0, (short) 0, (short) 0);
@@ -80,70 +107,73 @@ public class PlayerInteractManager {
 				player.clientConnection.sendPacket(meta);
 			}
 		}
-		List<Integer> ids = new ArrayList<>();
 		for (Entity entity : entities) {
 			if (!entitiesInRange.contains(entity)) {
-				ids.add(entity.getEntityId());
+				PacketPlayOutEntityDestroy packet = new PacketPlayOutEntityDestroy(entity.getEntityId());
+				player.clientConnection.sendPacket(packet);
 			}
 		}
-		for (int id : ids) {
-			PacketPlayOutEntityDestroy packet = new PacketPlayOutEntityDestroy(id);
-			player.clientConnection.sendPacket(packet);
-		}
 		
 		entities = entitiesInRange;
+	}
+	
+	private void updateChunks(World world, int chunkX, int chunkZ, int distance) throws IOException {
+		boolean sameWorld = world.equals(viewWorld);
+		if (sameWorld && chunkX == viewChunkX && chunkZ == viewChunkZ && distance == viewDistance) {
+			return;
+		}
 		
-		int playerChunkX = (int) location.getX() >> 4;
-		int playerChunkZ = (int) location.getZ() >> 4;
-		World world = location.getWorld();
-		
-		Map<ChunkPosition, Chunk> chunksInRange = new HashMap<>();
-		
-		for (int x = playerChunkX - viewDistanceChunks; x < playerChunkX + viewDistanceChunks; x++) {
-			for (int z = playerChunkZ - viewDistanceChunks; z < playerChunkZ + viewDistanceChunks; z++) {
-				Chunk chunk = world.getChunkAt(x, z);
-				if (chunk != null) {
-					chunksInRange.put(new ChunkPosition(world, x, z), chunk);
-				} else {
-					chunksInRange.put(new ChunkPosition(world, x, z), World.EMPTY_CHUNK);
-				}
+		if (viewWorld != null) {
+			if (sameWorld) {
+				forEachDifference(viewChunkX - viewDistance, viewChunkZ - viewDistance, viewChunkX + viewDistance, viewChunkZ + viewDistance, chunkX - distance, chunkZ - distance, chunkX + distance, chunkZ + distance, this::unloadChunk);
+			} else {
+				forEachDifference(viewChunkX - viewDistance, viewChunkZ - viewDistance, viewChunkX + viewDistance, viewChunkZ + viewDistance, 0, 0, 0, 0, this::unloadChunk);
 			}
 		}
 		
-		for (Entry<ChunkPosition, Chunk> entry : currentViewing.entrySet()) {
-			ChunkPosition chunkPos = entry.getKey();
-			if (!chunksInRange.containsKey(chunkPos)) {
-				PacketPlayOutUnloadChunk packet = new PacketPlayOutUnloadChunk(chunkPos.getChunkX(), chunkPos.getChunkZ());
-				player.clientConnection.sendPacket(packet);
-			}
+		if (sameWorld) {
+			forEachDifference(chunkX - distance, chunkZ - distance, chunkX + distance, chunkZ + distance, viewChunkX - viewDistance, viewChunkZ - viewDistance, viewChunkX + viewDistance, viewChunkZ + viewDistance, (x, z) -> loadChunk(world, x, z));
+		} else {
+			forEachDifference(chunkX - distance, chunkZ - distance, chunkX + distance, chunkZ + distance, 0, 0, 0, 0, (x, z) -> loadChunk(world, x, z));
 		}
-
-		for (Entry<ChunkPosition, Chunk> entry : chunksInRange.entrySet()) {
-			ChunkPosition chunkPos = entry.getKey();
-			if (!currentViewing.containsKey(chunkPos)) {
-				Chunk chunk = chunkPos.getWorld().getChunkAt(chunkPos.getChunkX(), chunkPos.getChunkZ());
-				if (chunk == null) {
-					ClientboundLevelChunkWithLightPacket chunkdata = new ClientboundLevelChunkWithLightPacket(chunkPos.getChunkX(), chunkPos.getChunkZ(), entry.getValue(), world.getEnvironment(), true, new ArrayList<>(), new ArrayList<>());
-					player.clientConnection.sendPacket(chunkdata);
-				} else {
-					List<Byte[]> blockChunk = world.getLightEngineBlock().getBlockLightBitMask(chunkPos.getChunkX(), chunkPos.getChunkZ());
-					if (blockChunk == null) {
-						blockChunk = new ArrayList<>();
-					}
-					List<Byte[]> skyChunk = null;
-					if (world.hasSkyLight()) {
-						skyChunk = world.getLightEngineSky().getSkyLightBitMask(chunkPos.getChunkX(), chunkPos.getChunkZ());
-					}
-					if (skyChunk == null) {
-						skyChunk = new ArrayList<>();
-					}
-					ClientboundLevelChunkWithLightPacket chunkdata = new ClientboundLevelChunkWithLightPacket(chunkPos.getChunkX(), chunkPos.getChunkZ(), chunk, world.getEnvironment(), true, skyChunk, blockChunk);
-					player.clientConnection.sendPacket(chunkdata);
+		
+		viewWorld = world;
+		viewChunkX = chunkX;
+		viewChunkZ = chunkZ;
+		viewDistance = distance;
+	}
+	
+	private void unloadChunk(int chunkX, int chunkZ) throws IOException {
+		PacketPlayOutUnloadChunk packet = new PacketPlayOutUnloadChunk(chunkX, chunkZ);
+		player.clientConnection.sendPacket(packet);
+	}
+	
+	private void loadChunk(World world, int chunkX, int chunkZ) throws IOException {
+		player.clientConnection.sendPacket(world.getChunkPacket(chunkX, chunkZ));
+	}
+	
+	static void forEachDifference(int fromX, int fromZ, int toX, int toZ, int excludeFromX, int excludeFromZ, int excludeToX, int excludeToZ, ChunkAction action) throws IOException {
+		for (int x = fromX; x < toX; x++) {
+			if (x < excludeFromX || x >= excludeToX) {
+				for (int z = fromZ; z < toZ; z++) {
+					action.accept(x, z);
+				}
+			} else {
+				for (int z = fromZ; z < Math.min(toZ, excludeFromZ); z++) {
+					action.accept(x, z);
+				}
+				for (int z = Math.max(fromZ, excludeToZ); z < toZ; z++) {
+					action.accept(x, z);
 				}
 			}
 		}
-
-		currentViewing = chunksInRange;
+	}
+	
+	@FunctionalInterface
+	interface ChunkAction {
+		
+		void accept(int chunkX, int chunkZ) throws IOException;
+		
 	}
 
 }
@@ -78,6 +78,11 @@ public class Tick {
 		    		tick.incrementAndGet();
 		    		instance.getPlayers().forEach(each -> {
 		    			if (each.clientConnection.isReady()) {
+							try {
+								each.clientConnection.processPendingMovement();
+							} catch (IOException e) {
+								e.printStackTrace();
+							}
 							try {
 								each.playerInteractManager.update();
 							} catch (IOException e) {
@@ -115,6 +120,13 @@ public class Tick {
 			    		});
 		    		}
 		    		
+		    		instance.getPlayers().forEach(each -> {
+		    			try {
+							each.clientConnection.flush();
+						} catch (IOException ignored) {
+						}
+		    		});
+		    		
 		    		long end = System.currentTimeMillis();
 		    		try {
 						TimeUnit.MILLISECONDS.sleep(tickingInterval - (end - start));
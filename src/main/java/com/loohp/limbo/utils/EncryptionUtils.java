@@ -0,0 +1,90 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.utils;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+public class EncryptionUtils {
+
+    public static final int SHARED_SECRET_LENGTH = 16;
+
+    public static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(1024);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            // Should never happen
+            throw new AssertionError(e);
+        }
+    }
+
+    public static byte[] decrypt(PrivateKey key, byte[] data) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return cipher.doFinal(data);
+    }
+
+    public static SecretKey decryptSharedSecret(PrivateKey key, byte[] encryptedSecret) throws GeneralSecurityException {
+        byte[] secret = decrypt(key, encryptedSecret);
+        if (secret.length != SHARED_SECRET_LENGTH) {
+            throw new GeneralSecurityException("Bad shared secret length " + secret.length);
+        }
+        return new SecretKeySpec(secret, "AES");
+    }
+
+    public static boolean verifyChallengeSignature(byte[] publicKey, byte[] challenge, long salt, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(publicKey)));
+        verifier.update(challenge);
+        verifier.update(ByteBuffer.allocate(Long.BYTES).putLong(salt).array());
+        return verifier.verify(signature);
+    }
+
+    public static String getServerIdHash(String serverId, PublicKey publicKey, SecretKey sharedSecret) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(serverId.getBytes(StandardCharsets.ISO_8859_1));
+            digest.update(sharedSecret.getEncoded());
+            digest.update(publicKey.getEncoded());
+            return new BigInteger(digest.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            // Should never happen
+            throw new AssertionError(e);
+        }
+    }
+
+}
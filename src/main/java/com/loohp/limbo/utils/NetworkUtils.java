@@ -20,11 +20,61 @@
 package com.loohp.limbo.utils;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.DatagramSocket;
 import java.net.ServerSocket;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
+import java.nio.channels.NetworkChannel;
 
 public class NetworkUtils {
 	
+	private static final SocketOption<Boolean> SO_REUSEPORT;
+	private static final Method SERVER_SOCKET_SET_OPTION;
+	
+	static {
+		SocketOption<Boolean> reusePort = null;
+		Method setOption = null;
+		try {
+			@SuppressWarnings("unchecked")
+			SocketOption<Boolean> option = (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+			setOption = ServerSocket.class.getMethod("setOption", SocketOption.class, Object.class);
+			reusePort = option;
+		} catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException ignore) {
+			setOption = null;
+		}
+		SO_REUSEPORT = reusePort;
+		SERVER_SOCKET_SET_OPTION = setOption;
+	}
+	
+	public static boolean isReusePortSupported() {
+		return SO_REUSEPORT != null;
+	}
+	
+	public static boolean setReusePort(ServerSocket socket) {
+		if (!isReusePortSupported()) {
+			return false;
+		}
+		try {
+			SERVER_SOCKET_SET_OPTION.invoke(socket, SO_REUSEPORT, true);
+			return true;
+		} catch (ReflectiveOperationException e) {
+			return false;
+		}
+	}
+	
+	public static boolean setReusePort(NetworkChannel channel) {
+		if (!isReusePortSupported() || !channel.supportedOptions().contains(SO_REUSEPORT)) {
+			return false;
+		}
+		try {
+			channel.setOption(SO_REUSEPORT, true);
+			return true;
+		} catch (IOException | UnsupportedOperationException e) {
+			return false;
+		}
+	}
+	
 	public static boolean available(int port) {
 	    ServerSocket ss = null;
 	    DatagramSocket ds = null;
@@ -58,14 +58,29 @@ public class ChunkPosition {
 	public Chunk getChunk() {
 		return getWorld().getChunkAt(x, z);
 	}
+	
+	public long toLong() {
+		return toLong(x, z);
+	}
+	
+	public static long toLong(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+	
+	public static int getChunkX(long key) {
+		return (int) (key >> 32);
+	}
+	
+	public static int getChunkZ(long key) {
+		return (int) key;
+	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((world == null) ? 0 : world.hashCode());
-		result = prime * result + x;
-		result = prime * result + z;
+		result = prime * result + ((x << 16) | (z & 0xFFFF));
 		return result;
 	}
 
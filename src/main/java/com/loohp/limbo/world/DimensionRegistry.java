@@ -19,6 +19,8 @@
 
 package com.loohp.limbo.world;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -33,6 +35,7 @@ import org.json.simple.parser.ParseException;
 
 import com.loohp.limbo.Limbo;
 import com.loohp.limbo.utils.CustomNBTUtils;
+import com.loohp.limbo.utils.DataTypeIO;
 
 import net.querz.nbt.tag.CompoundTag;
 
@@ -40,6 +43,7 @@ public class DimensionRegistry {
 	
 	private CompoundTag defaultTag;
 	private CompoundTag codec;
+	private byte[] serializedCodec;
 	private File reg;
 	
 	public DimensionRegistry() {
@@ -71,12 +75,22 @@ public class DimensionRegistry {
 		return reg;
 	}
 	
-	public void resetCodec() {
+	public synchronized void resetCodec() {
 		codec = defaultTag.clone();
+		serializedCodec = null;
 	}
 	
 	public CompoundTag getCodec() {		
 		return codec;
 	}
+	
+	public synchronized byte[] getSerializedCodec() throws IOException {
+		if (serializedCodec == null) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			DataTypeIO.writeCompoundTag(new DataOutputStream(buffer), codec);
+			serializedCodec = buffer.toByteArray();
+		}
+		return serializedCodec;
+	}
 
 }
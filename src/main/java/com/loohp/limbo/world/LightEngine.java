@@ -19,11 +19,20 @@
 
 package com.loohp.limbo.world;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class LightEngine {
 	
+	public static final int SECTION_COUNT = 18;
+	public static final int SECTION_BYTES = 2048;
+	
+	private static final byte[] DARK_SECTION = new byte[SECTION_BYTES];
+	private static final byte[] BRIGHT_SECTION = new byte[SECTION_BYTES];
+	
 	private static Map<String, Byte> blockLightLevelMapping = new HashMap<>();
 	
 	static {
@@ -53,10 +62,224 @@ public abstract class LightEngine {
 		blockLightLevelMapping.put("minecraft:beacon", (byte) 15);
 		blockLightLevelMapping.put("minecraft:beacon", (byte) 15);
 		
+		Arrays.fill(BRIGHT_SECTION, (byte) 0xFF);
+	}
+	
+	private int width;
+	private int length;
+	private int chunkLength;
+	private byte[][] sections;
+	private final IntQueue increaseQueue = new IntQueue();
+	private final IntQueue decreaseQueue = new IntQueue();
+	
+	protected abstract int getEmission(int x, int y, int z);
+	
+	protected abstract boolean propagatesDownwards();
+	
+	protected void resetLight(World world) {
+		width = world.getChunkWidth() * 16;
+		length = world.getChunkLength() * 16;
+		chunkLength = world.getChunkLength();
+		sections = new byte[world.getChunkWidth() * chunkLength * SECTION_COUNT][];
+		Arrays.fill(sections, DARK_SECTION);
+	}
+	
+	protected boolean isInBounds(int x, int y, int z) {
+		return x >= 0 && x < width && z >= 0 && z < length && y >= -16 && y < SECTION_COUNT * 16 - 16;
+	}
+	
+	private int getSectionIndex(int x, int y, int z) {
+		return ((x >> 4) * chunkLength + (z >> 4)) * SECTION_COUNT + ((y + 16) >> 4);
+	}
+	
+	protected int getLight(int x, int y, int z) {
+		int index = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+		byte packed = sections[getSectionIndex(x, y, z)][index >> 1];
+		return (index & 1) == 0 ? (packed >> 4) & 15 : packed & 15;
+	}
+	
+	protected void setLight(int x, int y, int z, int level) {
+		int sectionIndex = getSectionIndex(x, y, z);
+		byte[] section = sections[sectionIndex];
+		if ((section == DARK_SECTION && level == 0) || (section == BRIGHT_SECTION && level == 15)) {
+			return;
+		}
+		if (section == DARK_SECTION || section == BRIGHT_SECTION) {
+			section = section.clone();
+			sections[sectionIndex] = section;
+		}
+		int index = ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+		int byteIndex = index >> 1;
+		if ((index & 1) == 0) {
+			section[byteIndex] = (byte) ((section[byteIndex] & 0x0F) | (level << 4));
+		} else {
+			section[byteIndex] = (byte) ((section[byteIndex] & 0xF0) | level);
+		}
+	}
+	
+	protected void addSource(int x, int y, int z, int level) {
+		if (isInBounds(x, y, z) && getLight(x, y, z) < level) {
+			setLight(x, y, z, level);
+			increaseQueue.add(x, y, z, level);
+		}
+	}
+	
+	protected void propagateFrom(int x, int y, int z) {
+		int level = getLight(x, y, z);
+		if (level > 1) {
+			increaseQueue.add(x, y, z, level);
+		}
+	}
+	
+	protected void removeLight(int x, int y, int z) {
+		if (!isInBounds(x, y, z)) {
+			return;
+		}
+		int level = getLight(x, y, z);
+		if (level > 0) {
+			setLight(x, y, z, 0);
+			decreaseQueue.add(x, y, z, level);
+		}
+	}
+	
+	protected void propagateIncrease() {
+		boolean downwards = propagatesDownwards();
+		while (!increaseQueue.isEmpty()) {
+			int x = increaseQueue.poll();
+			int y = increaseQueue.poll();
+			int z = increaseQueue.poll();
+			int level = increaseQueue.poll();
+			if (level <= 1 || getLight(x, y, z) != level) {
+				continue;
+			}
+			level--;
+			addSource(x + 1, y, z, level);
+			addSource(x - 1, y, z, level);
+			addSource(x, y + 1, z, level);
+			if (downwards) {
+				addSource(x, y - 1, z, level);
+			}
+			addSource(x, y, z + 1, level);
+			addSource(x, y, z - 1, level);
+		}
+	}
+	
+	protected void propagateDecrease() {
+		boolean downwards = propagatesDownwards();
+		while (!decreaseQueue.isEmpty()) {
+			int x = decreaseQueue.poll();
+			int y = decreaseQueue.poll();
+			int z = decreaseQueue.poll();
+			int level = decreaseQueue.poll();
+			decreaseNeighbour(x + 1, y, z, level);
+			decreaseNeighbour(x - 1, y, z, level);
+			decreaseNeighbour(x, y + 1, z, level);
+			if (downwards) {
+				decreaseNeighbour(x, y - 1, z, level);
+			} else if (isInBounds(x, y - 1, z)) {
+				int below = getLight(x, y - 1, z);
+				if (below > 0) {
+					increaseQueue.add(x, y - 1, z, below);
+				}
+			}
+			decreaseNeighbour(x, y, z + 1, level);
+			decreaseNeighbour(x, y, z - 1, level);
+			int emission = getEmission(x, y, z);
+			if (emission > 0) {
+				addSource(x, y, z, emission);
+			}
+		}
+		propagateIncrease();
+	}
+	
+	private void decreaseNeighbour(int x, int y, int z, int level) {
+		if (!isInBounds(x, y, z)) {
+			return;
+		}
+		int neighbour = getLight(x, y, z);
+		if (neighbour == 0) {
+			return;
+		}
+		if (neighbour < level) {
+			setLight(x, y, z, 0);
+			decreaseQueue.add(x, y, z, neighbour);
+		} else {
+			increaseQueue.add(x, y, z, neighbour);
+		}
+	}
+	
+	protected void compactSections() {
+		for (int i = 0; i < sections.length; i++) {
+			byte[] section = sections[i];
+			if (section == DARK_SECTION || section == BRIGHT_SECTION) {
+				continue;
+			}
+			if (Arrays.equals(section, DARK_SECTION)) {
+				sections[i] = DARK_SECTION;
+			} else if (Arrays.equals(section, BRIGHT_SECTION)) {
+				sections[i] = BRIGHT_SECTION;
+			}
+		}
+	}
+	
+	protected List<byte[]> getLightSections(int chunkX, int chunkZ) {
+		if (chunkX < 0 || chunkZ < 0 || chunkX >= width >> 4 || chunkZ >= chunkLength) {
+			return null;
+		}
+		int base = (chunkX * chunkLength + chunkZ) * SECTION_COUNT;
+		List<byte[]> subchunks = new ArrayList<>(SECTION_COUNT);
+		for (int sub = SECTION_COUNT - 1; sub >= 0; sub--) {
+			subchunks.add(sections[base + sub].clone());
+		}
+		return subchunks;
 	}
 	
 	public static int getBlockLight(BlockState block) {
 		return blockLightLevelMapping.getOrDefault(block.getType().toString(), (byte) 0);
 	}
+	
+	private static class IntQueue {
+		
+		private int[] elements = new int[1024];
+		private int head = 0;
+		private int tail = 0;
+		
+		private boolean isEmpty() {
+			return head == tail;
+		}
+		
+		private void add(int a, int b, int c, int d) {
+			if (((tail + 4) & (elements.length - 1)) == head) {
+				grow();
+			}
+			elements[tail] = a;
+			elements[tail + 1] = b;
+			elements[tail + 2] = c;
+			elements[tail + 3] = d;
+			tail = (tail + 4) & (elements.length - 1);
+		}
+		
+		private int poll() {
+			int element = elements[head];
+			head = (head + 1) & (elements.length - 1);
+			return element;
+		}
+		
+		private void grow() {
+			int[] expanded = new int[elements.length << 1];
+			int size = (tail - head) & (elements.length - 1);
+			if (head < tail) {
+				System.arraycopy(elements, head, expanded, 0, size);
+			} else {
+				int first = elements.length - head;
+				System.arraycopy(elements, head, expanded, 0, first);
+				System.arraycopy(elements, 0, expanded, first, tail);
+			}
+			elements = expanded;
+			head = 0;
+			tail = size;
+		}
+		
+	}
 
 }
@@ -19,88 +19,114 @@
 
 package com.loohp.limbo.world;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class LightEngineSky extends LightEngine {
 	
 	private World world;
-	private byte[][][] skyLightArray;
+	private int[] columnBottoms;
 	
 	public LightEngineSky(World world) {
-		skyLightArray = new byte[world.getChunkWidth() * 16][16 * 18][world.getChunkLength() * 16];
-		/*
-		for (byte[][] arrayarray : skyLightArray) {
-			for (byte[] array : arrayarray) {
-				Arrays.fill(array, (byte) 0); 
-			}
-		}
-		*/
 		this.world = world;
 		updateWorld();
 	}
 	
 	public void updateWorld() {
-		skyLightArray = new byte[world.getChunkWidth() * 16][16 * 18][world.getChunkLength() * 16];
+		resetLight(world);
+		columnBottoms = new int[world.getChunkWidth() * world.getChunkLength() * 256];
+		Arrays.fill(columnBottoms, 272);
+		for (int x = 0; x < world.getWidth(); x++) {
+			for (int z = 0; z < world.getLength(); z++) {
+				fillColumn(x, z);
+			}
+		}
 		for (int x = 0; x < world.getWidth(); x++) {
 			for (int z = 0; z < world.getLength(); z++) {
 				updateColumn(x, z);
 			}
 		}
+		compactSections();
+		world.invalidateChunkPackets();
 	}
 	
-	private void updateColumn(int x, int z) {
-		for (int y = 272; y >= 256; y--) {
-			propergate(15, x, y, z);
+	private void fillColumn(int x, int z) {
+		int bottom = 256;
+		while (bottom > 0 && isAir(world.getBlock(x, bottom - 1, z))) {
+			bottom--;
 		}
-		for (int y = 255; y >= 0; y--) {
-			BlockState block = world.getBlock(x, y, z);
-			//System.out.println("X:" + x + " Y: " + y + " Z: " + z + " Block: " + block.getType().toString());
-			if (!block.getType().toString().equals("minecraft:air")) {
-				break;
-			}
-			propergate(15, x, y, z);
+		columnBottoms[getColumnIndex(x, z)] = bottom;
+		for (int y = 271; y >= bottom; y--) {
+			setLight(x, y, z, 15);
 		}
 	}
 	
-	private void propergate(int level, int x, int y, int z) {
-		try {
-			if (skyLightArray[x][y + 16][z] < level) {
-				skyLightArray[x][y + 16][z] = (byte) level;
-				if (level > 1) {
-					try {propergate(level - 1, x + 1, y, z);} catch (ArrayIndexOutOfBoundsException e) {}
-					try {propergate(level - 1, x - 1, y, z);} catch (ArrayIndexOutOfBoundsException e) {}
-					try {propergate(level - 1, x, y + 1, z);} catch (ArrayIndexOutOfBoundsException e) {}
-					try {propergate(level - 1, x, y, z + 1);} catch (ArrayIndexOutOfBoundsException e) {}
-					try {propergate(level - 1, x, y, z - 1);} catch (ArrayIndexOutOfBoundsException e) {}
-				}
+	private void updateColumn(int x, int z) {
+		for (int y = 271; y >= columnBottoms[getColumnIndex(x, z)]; y--) {
+			if (isDarker(x + 1, y, z) || isDarker(x - 1, y, z) || isDarker(x, y, z + 1) || isDarker(x, y, z - 1)) {
+				propagateFrom(x, y, z);
 			}
-		} catch (ArrayIndexOutOfBoundsException e) {}
+		}
+		propagateIncrease();
 	}
 	
-	public List<Byte[]> getSkyLightBitMask(int chunkX, int chunkZ) {
-		List<Byte[]> subchunks = new ArrayList<>(18);
-		int startX = chunkX * 16;
-		int endingX = startX + 16;
-		int startZ = chunkZ * 16;
-		int endingZ = startZ + 16;
-		
-		for (int sub = 17; sub >= 0; sub--) {
-			List<Byte> array = new ArrayList<>();
-			for (int y = sub * 16; y < (sub * 16) + 16; y++) {
-				for (int z = startZ; z < endingZ; z++) {
-					for (int x = startX; x < endingX; x += 2) {
-						int bit = skyLightArray[x][y][z];
-						bit = bit << 4;
-						bit |= skyLightArray[x + 1][y][z];
-						array.add((byte) bit);
-					}
-				}
+	private boolean isDarker(int x, int y, int z) {
+		return isInBounds(x, y, z) && getLight(x, y, z) < 14;
+	}
+	
+	public boolean updateBlock(int x, int y, int z, BlockState previous, BlockState current) {
+		boolean wasAir = isAir(previous);
+		if (wasAir == isAir(current) || !isInBounds(x, y, z)) {
+			return false;
+		}
+		int index = getColumnIndex(x, z);
+		int bottom = columnBottoms[index];
+		if (wasAir) {
+			if (y < bottom) {
+				return false;
+			}
+			columnBottoms[index] = y + 1;
+			for (int i = y; i >= bottom; i--) {
+				removeLight(x, i, z);
 			}
-			subchunks.add(array.toArray(new Byte[2048]));
+			propagateDecrease();
+		} else {
+			if (y != bottom - 1) {
+				return false;
+			}
+			bottom = y;
+			while (bottom > 0 && isAir(world.getBlock(x, bottom - 1, z))) {
+				bottom--;
+			}
+			columnBottoms[index] = bottom;
+			for (int i = y; i >= bottom; i--) {
+				addSource(x, i, z, 15);
+			}
+			propagateIncrease();
 		}
-		
-		return subchunks;
+		return true;
+	}
+	
+	@Override
+	protected int getEmission(int x, int y, int z) {
+		return y < 272 && y >= columnBottoms[getColumnIndex(x, z)] ? 15 : 0;
+	}
+	
+	@Override
+	protected boolean propagatesDownwards() {
+		return false;
+	}
+	
+	private int getColumnIndex(int x, int z) {
+		return x * world.getChunkLength() * 16 + z;
+	}
+	
+	private static boolean isAir(BlockState block) {
+		return block.getType().toString().equals("minecraft:air");
+	}
+	
+	public List<byte[]> getSkyLightBitMask(int chunkX, int chunkZ) {
+		return getLightSections(chunkX, chunkZ);
 	}
 
 }
@@ -21,12 +21,14 @@ package com.loohp.limbo.world;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 import com.loohp.limbo.Limbo;
@@ -36,8 +38,11 @@ import com.loohp.limbo.entity.DataWatcher.WatchableObject;
 import com.loohp.limbo.entity.Entity;
 import com.loohp.limbo.entity.EntityType;
 import com.loohp.limbo.location.Location;
+import com.loohp.limbo.network.protocol.packets.CachedPacketOut;
+import com.loohp.limbo.network.protocol.packets.ClientboundLevelChunkWithLightPacket;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutEntityDestroy;
 import com.loohp.limbo.network.protocol.packets.PacketPlayOutEntityMetadata;
+import com.loohp.limbo.network.protocol.packets.PacketOut;
 import com.loohp.limbo.player.Player;
 import com.loohp.limbo.utils.SchematicConvertionUtils;
 
@@ -77,6 +82,8 @@ public class World {
 	private LightEngineBlock lightEngineBlock;
 	private LightEngineSky lightEngineSky;
 	private Map<Entity, DataWatcher> entities;
+	private final AtomicInteger entityModCount = new AtomicInteger();
+	private AtomicReferenceArray<CachedPacketOut> chunkPackets;
 
 	public World(String name, int width, int length, Environment environment) {
 		this.name = name;
@@ -84,6 +91,7 @@ public class World {
 		this.chunks = new Chunk[(width >> 4) + 1][(length >> 4) + 1];
 		this.width = width;
 		this.length = length;
+		this.chunkPackets = new AtomicReferenceArray<>(getChunkWidth() * getChunkLength());
 
 		for (int x = 0; x < chunks.length; x++) {
 			for (int z = 0; z < chunks[x].length; z++) {
@@ -124,6 +132,7 @@ public class World {
 		}
 		CompoundTag block = SchematicConvertionUtils.toBlockTag(blockdata);
 		chunk.setBlockStateAt(x, y, z, block, false);
+		invalidateChunkPacket(x >> 4, z >> 4);
 	}
 	
 	public BlockState getBlock(int x, int y, int z) {
@@ -147,7 +156,64 @@ public class World {
 			chunk = Chunk.newChunk();
 			this.chunks[(x >> 4)][(z >> 4)] = chunk;
 		}
-		chunk.setBlockStateAt(x % 16, y % 16, z % 16, state.toCompoundTag(), false);
+		BlockState previous = getBlock(x, y, z);
+		chunk.setBlockStateAt(x, y, z, state.toCompoundTag(), false);
+		boolean lightChanged = lightEngineBlock.updateBlock(x, y, z, previous, state);
+		if (lightEngineSky != null && lightEngineSky.updateBlock(x, y, z, previous, state)) {
+			lightChanged = true;
+		}
+		if (lightChanged) {
+			for (int chunkX = (x - 15) >> 4; chunkX <= (x + 15) >> 4; chunkX++) {
+				for (int chunkZ = (z - 15) >> 4; chunkZ <= (z + 15) >> 4; chunkZ++) {
+					invalidateChunkPacket(chunkX, chunkZ);
+				}
+			}
+		} else {
+			invalidateChunkPacket(x >> 4, z >> 4);
+		}
+	}
+
+	public PacketOut getChunkPacket(int chunkX, int chunkZ) {
+		if (getChunkAt(chunkX, chunkZ) == null) {
+			return new ClientboundLevelChunkWithLightPacket(chunkX, chunkZ, EMPTY_CHUNK, environment, true, new ArrayList<>(), new ArrayList<>());
+		}
+		int index = chunkX * getChunkLength() + chunkZ;
+		CachedPacketOut packet = chunkPackets.get(index);
+		if (packet == null) {
+			CachedPacketOut created = new CachedPacketOut(() -> createChunkPacket(chunkX, chunkZ));
+			packet = chunkPackets.compareAndSet(index, null, created) ? created : chunkPackets.get(index);
+			if (packet == null) {
+				packet = created;
+			}
+		}
+		return packet;
+	}
+	
+	private ClientboundLevelChunkWithLightPacket createChunkPacket(int chunkX, int chunkZ) {
+		List<byte[]> blockChunk = lightEngineBlock.getBlockLightBitMask(chunkX, chunkZ);
+		if (blockChunk == null) {
+			blockChunk = new ArrayList<>();
+		}
+		List<byte[]> skyChunk = null;
+		if (hasSkyLight()) {
+			skyChunk = lightEngineSky.getSkyLightBitMask(chunkX, chunkZ);
+		}
+		if (skyChunk == null) {
+			skyChunk = new ArrayList<>();
+		}
+		return new ClientboundLevelChunkWithLightPacket(chunkX, chunkZ, getChunkAt(chunkX, chunkZ), environment, true, skyChunk, blockChunk);
+	}
+	
+	public void invalidateChunkPacket(int chunkX, int chunkZ) {
+		if (chunkX >= 0 && chunkZ >= 0 && chunkX < getChunkWidth() && chunkZ < getChunkLength()) {
+			chunkPackets.set(chunkX * getChunkLength() + chunkZ, null);
+		}
+	}
+	
+	public void invalidateChunkPackets() {
+		for (int i = 0; i < chunkPackets.length(); i++) {
+			chunkPackets.set(i, null);
+		}
 	}
 
 	public Chunk[][] getChunks() {
@@ -229,6 +295,10 @@ public class World {
 		return Collections.unmodifiableSet(entities.keySet());
 	}
 	
+	public int getEntityModCount() {
+		return entityModCount.get();
+	}
+	
 	public Entity spawnEntity(EntityType type, Location location) {
 		if (!location.getWorld().equals(this)) {
 			throw new IllegalArgumentException("Location not in world.");
@@ -242,12 +312,14 @@ public class World {
 			throw new UnsupportedOperationException("This EntityType cannot be summoned.");
 		}
 		entities.put(entity, new DataWatcher(entity));
+		entityModCount.incrementAndGet();
 		return entity;
 	}
 	
 	public Entity addEntity(Entity entity) {
 		if (entity.getWorld().equals(this)) {
 			entities.put(entity, new DataWatcher(entity));
+			entityModCount.incrementAndGet();
 		} else {
 			throw new IllegalArgumentException("Location not in world.");
 		}
@@ -260,7 +332,8 @@ public class World {
 	
 	protected void removeEntity(Entity entity) {
 		entities.remove(entity);
-		PacketPlayOutEntityDestroy packet = new PacketPlayOutEntityDestroy(entity.getEntityId());
+		entityModCount.incrementAndGet();
+		CachedPacketOut packet = new CachedPacketOut(new PacketPlayOutEntityDestroy(entity.getEntityId()));
 		for (Player player : getPlayers()) {
 			try {
 				player.clientConnection.sendPacket(packet);
@@ -278,7 +351,7 @@ public class World {
 		for (DataWatcher watcher : entities.values()) {
 			if (watcher.getEntity().getWorld().equals(this)) {
 				Map<Field, WatchableObject> updated = watcher.update();
-				PacketPlayOutEntityMetadata packet = new PacketPlayOutEntityMetadata(watcher.getEntity(), false, updated.keySet().toArray(new Field[0]));
+				CachedPacketOut packet = new CachedPacketOut(new PacketPlayOutEntityMetadata(watcher.getEntity(), false, updated.keySet().toArray(new Field[0])));
 				for (Player player : getPlayers()) {
 					try {
 						player.clientConnection.sendPacket(packet);
@@ -287,7 +360,7 @@ public class World {
 					}
 				}
 			} else {
-				PacketPlayOutEntityDestroy packet = new PacketPlayOutEntityDestroy(watcher.getEntity().getEntityId());
+				CachedPacketOut packet = new CachedPacketOut(new PacketPlayOutEntityDestroy(watcher.getEntity().getEntityId()));
 				for (Player player : getPlayers()) {
 					try {
 						player.clientConnection.sendPacket(packet);
@@ -296,6 +369,7 @@ public class World {
 					}
 				}
 				entities.remove(watcher.getEntity());
+				entityModCount.incrementAndGet();
 			}
 		}
 	}
@@ -304,7 +378,6 @@ public class World {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + Arrays.deepHashCode(chunks);
 		result = prime * result + ((environment == null) ? 0 : environment.hashCode());
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
 		return result;
@@ -322,9 +395,6 @@ public class World {
 			return false;
 		}
 		World other = (World) obj;
-		if (!Arrays.deepEquals(chunks, other.chunks)) {
-			return false;
-		}
 		if (environment != other.environment) {
 			return false;
 		}
@@ -0,0 +1,345 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+public class NettyConnection extends ByteToMessageDecoder implements AsyncConnection {
+
+    private final SocketChannel channel;
+    private final ClientConnection connection;
+    private final OutboundQueue writeQueue;
+    private final FrameInputStream frameInput;
+    private final FrameOutputStream frameOutput;
+    private final Queue<ByteBuf> pendingWrites;
+    private final AtomicBoolean flushScheduled;
+    private final AtomicBoolean closed;
+    private volatile PacketCipher encryption;
+    private PacketCipher decryption;
+
+    protected NettyConnection(SocketChannel channel) {
+        this.channel = channel;
+        this.writeQueue = ClientConnection.createOutboundQueue();
+        this.frameInput = new FrameInputStream();
+        this.frameOutput = new FrameOutputStream();
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.flushScheduled = new AtomicBoolean(false);
+        this.closed = new AtomicBoolean(false);
+        this.encryption = null;
+        this.decryption = null;
+        this.connection = new ClientConnection(channel.remoteAddress(), this, writeQueue);
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    public ClientConnection getClientConnection() {
+        return connection;
+    }
+
+    public OutboundQueue getOutboundQueue() {
+        return writeQueue;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return channel.eventLoop();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void setEncryption(PacketCipher encryption, PacketCipher decryption) {
+        this.encryption = encryption;
+        this.decryption = decryption;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            connection.handleOpen(new DataInputStream(frameInput), new DataOutputStream(frameOutput));
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (decryption != null && msg instanceof ByteBuf) {
+            ByteBuf buffer = (ByteBuf) msg;
+            decryption.process(buffer.nioBuffer(buffer.readerIndex(), buffer.readableBytes()));
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (connection.isAwaitingProxyHeader()) {
+            ByteBuffer header = in.nioBuffer(in.readerIndex(), in.readableBytes());
+            if (!connection.handleProxyHeader(header)) {
+                return;
+            }
+            in.skipBytes(header.position());
+        }
+        while (in.isReadable() && !closed.get()) {
+            int start = in.readerIndex();
+            int size = readVarInt(in);
+            if (size < 0) {
+                in.readerIndex(start);
+                return;
+            }
+            if (connection.isLegacyPing(size)) {
+                connection.handleLegacyPing();
+                close();
+                return;
+            }
+            if (size > Channel.MAX_FRAME_SIZE) {
+                throw new IOException("Packet too large (" + size + " bytes)");
+            }
+            if (in.readableBytes() < size) {
+                in.readerIndex(start);
+                return;
+            }
+            int end = in.readerIndex() + size;
+            frameInput.setFrame(in, end);
+            PacketCipher cipher = decryption;
+            try {
+                if (!connection.handleFrame(size)) {
+                    close();
+                    return;
+                }
+            } finally {
+                in.readerIndex(end);
+                frameInput.setFrame(Unpooled.EMPTY_BUFFER, 0);
+            }
+            if (cipher == null && decryption != null) {
+                decryption.process(in.nioBuffer(in.readerIndex(), in.readableBytes()));
+            }
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        super.channelReadComplete(ctx);
+        connection.handleReadComplete();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        closed.set(true);
+        writeQueue.clear();
+        frameOutput.release();
+        ByteBuf pending;
+        while ((pending = pendingWrites.poll()) != null) {
+            pending.release();
+        }
+        connection.handleClose();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        close();
+    }
+
+    private void write(ByteBuf buffer) throws IOException {
+        if (closed.get()) {
+            buffer.release();
+            throw new IOException("Connection already closed!");
+        }
+        // Frames are encrypted in the order they are flushed, so they are handed to the channel
+        // from the event loop in that same order rather than by whichever thread flushed them
+        writeQueue.queued(buffer.readableBytes());
+        pendingWrites.offer(buffer);
+        if (channel.eventLoop().inEventLoop()) {
+            writePending();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(this::writePending);
+        }
+    }
+
+    private void writePending() {
+        flushScheduled.set(false);
+        ByteBuf buffer;
+        boolean written = false;
+        while ((buffer = pendingWrites.poll()) != null) {
+            if (!channel.isActive()) {
+                buffer.release();
+                continue;
+            }
+            int bytes = buffer.readableBytes();
+            channel.write(buffer).addListener(future -> {
+                if (future.isSuccess()) {
+                    writeQueue.written(bytes);
+                }
+            });
+            written = true;
+        }
+        if (written) {
+            channel.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!channel.eventLoop().inEventLoop()) {
+            channel.eventLoop().execute(this::close);
+            return;
+        }
+        if (closed.get()) {
+            return;
+        }
+        try {
+            connection.flush();
+        } catch (Exception ignored) {
+        }
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (writeQueue.isCongested()) {
+            channel.close();
+        } else {
+            channel.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    private static int readVarInt(ByteBuf buffer) {
+        int result = 0;
+        for (int numRead = 0; numRead < 5; numRead++) {
+            if (!buffer.isReadable()) {
+                return -1;
+            }
+            byte read = buffer.readByte();
+            result |= (read & 0b01111111) << (7 * numRead);
+            if ((read & 0b10000000) == 0) {
+                return result;
+            }
+        }
+        throw new RuntimeException("VarInt is too big");
+    }
+
+    private static class FrameInputStream extends InputStream {
+
+        private ByteBuf frame = Unpooled.EMPTY_BUFFER;
+        private int end = 0;
+
+        private void setFrame(ByteBuf frame, int end) {
+            this.frame = frame;
+            this.end = end;
+        }
+
+        @Override
+        public int read() {
+            return frame.readerIndex() < end ? frame.readByte() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int read = Math.min(len, available());
+            if (read <= 0) {
+                return -1;
+            }
+            frame.readBytes(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, available()));
+            frame.skipBytes(skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return end - frame.readerIndex();
+        }
+
+    }
+
+    private class FrameOutputStream extends OutputStream {
+
+        private ByteBuf buffer;
+
+        private ByteBuf buffer() {
+            if (buffer == null) {
+                buffer = channel.alloc().buffer();
+            }
+            return buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer().writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer().writeBytes(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer != null && buffer.isReadable()) {
+                ByteBuf bytes = buffer;
+                buffer = null;
+                if (encryption != null) {
+                    encryption.process(bytes.nioBuffer());
+                }
+                NettyConnection.this.write(bytes);
+            }
+        }
+
+        private void release() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.loohp.limbo.Limbo;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+public class NettyServerTransport implements ServerTransport {
+
+    private static final int TCP_FASTOPEN_QUEUE = 256;
+
+    private final ServerConnection serverConnection;
+
+    public NettyServerTransport(ServerConnection serverConnection) {
+        this.serverConnection = serverConnection;
+    }
+
+    @Override
+    public void run(List<ServerListener> listeners, int acceptThreads, int threads) throws IOException {
+        boolean epoll = Epoll.isAvailable();
+        int binds = epoll ? acceptThreads : 1;
+        Class<? extends ServerChannel> channelClass;
+        EventLoopGroup bossGroup;
+        EventLoopGroup workerGroup;
+        if (epoll) {
+            channelClass = EpollServerSocketChannel.class;
+            bossGroup = new EpollEventLoopGroup(listeners.size() * binds, new DefaultThreadFactory("Limbo Netty Boss", true));
+            workerGroup = new EpollEventLoopGroup(threads, new DefaultThreadFactory("Limbo Netty Event Loop", true));
+        } else {
+            channelClass = NioServerSocketChannel.class;
+            bossGroup = new NioEventLoopGroup(listeners.size(), new DefaultThreadFactory("Limbo Netty Boss", true));
+            workerGroup = new NioEventLoopGroup(threads, new DefaultThreadFactory("Limbo Netty Event Loop", true));
+        }
+
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(channelClass)
+                .option(ChannelOption.SO_BACKLOG, Limbo.getInstance().getServerProperties().getNetworkAcceptBacklog())
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.SO_KEEPALIVE, true);
+        if (epoll) {
+            bootstrap.option(EpollChannelOption.TCP_FASTOPEN, TCP_FASTOPEN_QUEUE);
+            if (binds > 1) {
+                bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            }
+        }
+
+        try {
+            List<Channel> channels = new ArrayList<>();
+            for (ServerListener listener : listeners) {
+                ServerBootstrap listenerBootstrap = bootstrap.clone().childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        InetSocketAddress remoteAddress = channel.remoteAddress();
+                        if (!serverConnection.admit(listener, remoteAddress.getAddress())) {
+                            channel.close();
+                            return;
+                        }
+                        NettyConnection connection = new NettyConnection(channel);
+                        if (serverConnection.isProxyProtocolTrusted(remoteAddress.getAddress())) {
+                            connection.getClientConnection().expectProxyHeader();
+                        }
+                        channel.pipeline().addLast("limbo", connection);
+                        serverConnection.getClients().add(connection.getClientConnection());
+                    }
+                });
+                for (int i = 0; i < binds; i++) {
+                    channels.add(listenerBootstrap.bind(listener.getAddress()).syncUninterruptibly().channel());
+                }
+                Limbo.getInstance().getConsole().sendMessage("Limbo server listening on " + listener + " using netty with " + (epoll ? "epoll" : "nio") + (binds > 1 ? " and " + binds + " accept threads (SO_REUSEPORT)" : ""));
+            }
+            for (Channel channel : channels) {
+                channel.closeFuture().syncUninterruptibly();
+            }
+        } catch (Exception e) {
+            throw new IOException("Unable to bind netty transport", e);
+        } finally {
+            bossGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully();
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.junit.Test;
+
+public class AddressRangeTest {
+
+    @Test
+    public void testIpv4Prefix() throws UnknownHostException {
+        AddressRange range = AddressRange.parse("10.20.0.0/14");
+
+        assertTrue(range.contains(InetAddress.getByName("10.20.0.0")));
+        assertTrue(range.contains(InetAddress.getByName("10.23.255.255")));
+        assertFalse(range.contains(InetAddress.getByName("10.24.0.0")));
+        assertFalse(range.contains(InetAddress.getByName("10.19.255.255")));
+    }
+
+    @Test
+    public void testSingleAddress() throws UnknownHostException {
+        AddressRange range = AddressRange.parse(" 127.0.0.1 ");
+
+        assertTrue(range.contains(InetAddress.getByName("127.0.0.1")));
+        assertFalse(range.contains(InetAddress.getByName("127.0.0.2")));
+    }
+
+    @Test
+    public void testMatchAll() throws UnknownHostException {
+        AddressRange range = AddressRange.parse("0.0.0.0/0");
+
+        assertTrue(range.contains(InetAddress.getByName("255.255.255.255")));
+        assertTrue(range.contains(InetAddress.getByName("1.2.3.4")));
+        assertFalse(range.contains(InetAddress.getByName("::1")));
+    }
+
+    @Test
+    public void testIpv6Prefix() throws UnknownHostException {
+        AddressRange range = AddressRange.parse("2001:db8:abcd::/49");
+
+        assertTrue(range.contains(InetAddress.getByName("2001:db8:abcd:7fff::1")));
+        assertFalse(range.contains(InetAddress.getByName("2001:db8:abcd:8000::1")));
+        assertFalse(range.contains(InetAddress.getByName("10.0.0.1")));
+        assertTrue(AddressRange.parse("::1/128").contains(InetAddress.getByName("::1")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHostnameRejected() {
+        AddressRange.parse("localhost");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrefixTooLong() {
+        AddressRange.parse("10.0.0.0/33");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrefix() {
+        AddressRange.parse("10.0.0.0/abc");
+    }
+
+}
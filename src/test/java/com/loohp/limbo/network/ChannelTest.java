@@ -0,0 +1,236 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.loohp.limbo.network.protocol.packets.CachedPacketOut;
+import com.loohp.limbo.network.protocol.packets.PacketBuffer;
+import com.loohp.limbo.network.protocol.packets.PacketIn;
+import com.loohp.limbo.network.protocol.packets.PacketOut;
+import com.loohp.limbo.utils.DataTypeIO;
+import com.loohp.limbo.utils.NamespacedKey;
+
+public class ChannelTest {
+
+    private static final int THRESHOLD = 256;
+
+    @Test
+    public void testCompressedRoundTrip() throws Exception {
+        byte[] small = payload(32, false);
+        byte[] large = payload(20000, false);
+        byte[] noise = payload(4096, true);
+        byte[] cached = payload(9000, false);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Channel writer = createChannel(new byte[0], bytes);
+        writer.setCompressionThreshold(THRESHOLD);
+        writer.writePacket(new RawPacketOut(0x01, small));
+        writer.writePacket(new RawPacketOut(0x22, large));
+        writer.writePacket(new RawPacketOut(0x7F, noise));
+        writer.writePacket(new CachedPacketOut(new RawPacketOut(0x40, cached)));
+        writer.writePacket(new RawPacketOut(0x02, new byte[0]));
+        writer.flush();
+
+        assertTrue(bytes.size() < large.length);
+        assertTrue(writer.getCompressionInputBytes() > writer.getCompressionOutputBytes());
+
+        Channel reader = createChannel(bytes.toByteArray(), new ByteArrayOutputStream());
+        reader.setCompressionThreshold(THRESHOLD);
+        assertPacket(reader.readPacket(), 0x01, small);
+        assertPacket(reader.readPacket(), 0x22, large);
+        assertPacket(reader.readPacket(), 0x7F, noise);
+        assertPacket(reader.readPacket(), 0x40, cached);
+        assertPacket(reader.readPacket(), 0x02, new byte[0]);
+
+        writer.close();
+        reader.close();
+    }
+
+    @Test
+    public void testUncompressedRoundTrip() throws Exception {
+        byte[] large = payload(20000, false);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Channel writer = createChannel(new byte[0], bytes);
+        writer.writePacket(new RawPacketOut(0x22, large));
+        writer.writePacket(new CachedPacketOut(new RawPacketOut(0x23, large)));
+        writer.flush();
+
+        assertEquals(2 * (DataTypeIO.getVarIntLength(large.length + 1) + 1 + large.length), bytes.size());
+
+        Channel reader = createChannel(bytes.toByteArray(), new ByteArrayOutputStream());
+        assertPacket(reader.readPacket(), 0x22, large);
+        assertPacket(reader.readPacket(), 0x23, large);
+    }
+
+    @Test(expected = IOException.class)
+    public void testDeclaredSizeMismatch() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Channel writer = createChannel(new byte[0], bytes);
+        writer.setCompressionThreshold(THRESHOLD);
+        writer.writePacket(new RawPacketOut(0x22, payload(4000, false)));
+        writer.flush();
+
+        byte[] frame = bytes.toByteArray();
+        DataInputStream frameInput = new DataInputStream(new ByteArrayInputStream(frame));
+        int frameLength = DataTypeIO.readVarInt(frameInput);
+        int dataLength = DataTypeIO.readVarInt(frameInput);
+        ByteArrayOutputStream tampered = new ByteArrayOutputStream();
+        DataOutputStream tamperedOutput = new DataOutputStream(tampered);
+        DataTypeIO.writeVarInt(tamperedOutput, frameLength);
+        DataTypeIO.writeVarInt(tamperedOutput, dataLength + 1);
+        tamperedOutput.write(frame, frame.length - frameInput.available(), frameInput.available());
+
+        Channel reader = createChannel(tampered.toByteArray(), new ByteArrayOutputStream());
+        reader.setCompressionThreshold(THRESHOLD);
+        reader.readPacket();
+    }
+
+    @Test
+    public void testHandlersSeeCachedPacket() throws Exception {
+        byte[] cached = payload(2048, false);
+        byte[] replacement = payload(300, true);
+        RawPacketOut packet = new RawPacketOut(0x40, cached);
+        List<PacketOut> seen = new ArrayList<>();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Channel writer = createChannel(new byte[0], bytes);
+        writer.setCompressionThreshold(THRESHOLD);
+        writer.addHandlerAfter(new NamespacedKey("test_write"), new ChannelPacketHandler() {
+            @Override
+            public ChannelPacketWrite write(ChannelPacketWrite write) {
+                seen.add(write.getPacket());
+                if (seen.size() == 2) {
+                    write.setPacket(new RawPacketOut(0x41, replacement));
+                }
+                return write;
+            }
+        });
+        writer.writePacket(new CachedPacketOut(packet));
+        writer.writePacket(new CachedPacketOut(packet));
+        writer.flush();
+
+        assertEquals(2, seen.size());
+        assertSame(packet, seen.get(0));
+        assertSame(packet, seen.get(1));
+
+        Channel reader = createChannel(bytes.toByteArray(), new ByteArrayOutputStream());
+        reader.setCompressionThreshold(THRESHOLD);
+        assertPacket(reader.readPacket(), 0x40, cached);
+        assertPacket(reader.readPacket(), 0x41, replacement);
+    }
+
+    @Test
+    public void testWriteAfterClose() throws Exception {
+        Channel channel = createChannel(new byte[0], new ByteArrayOutputStream());
+        channel.setCompressionThreshold(THRESHOLD);
+        channel.close();
+        channel.close();
+        try {
+            channel.writePacket(new RawPacketOut(0x01, payload(1024, false)));
+            fail("Expected write on a closed channel to fail");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static Channel createChannel(byte[] input, ByteArrayOutputStream output) {
+        Channel channel = new Channel(new DataInputStream(new ByteArrayInputStream(input)), new DataOutputStream(output), new NetworkStatistics());
+        channel.addHandlerAfter(new NamespacedKey("test"), new ChannelPacketHandler() {
+            @Override
+            public ChannelPacketRead read(ChannelPacketRead read) {
+                try {
+                    byte[] data = new byte[read.getSize() - DataTypeIO.getVarIntLength(read.getPacketId())];
+                    read.getDataInput().readFully(data);
+                    read.setPacket(new RawPacketIn(read.getPacketId(), data));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return read;
+            }
+        });
+        return channel;
+    }
+
+    private static void assertPacket(PacketIn packet, int packetId, byte[] data) {
+        RawPacketIn raw = (RawPacketIn) packet;
+        assertEquals(packetId, raw.packetId);
+        assertArrayEquals(data, raw.data);
+    }
+
+    private static byte[] payload(int length, boolean random) {
+        byte[] data = new byte[length];
+        if (random) {
+            new Random(length).nextBytes(data);
+        } else {
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (i % 17);
+            }
+        }
+        return data;
+    }
+
+    private static class RawPacketOut extends PacketOut {
+
+        private final int packetId;
+        private final byte[] data;
+
+        private RawPacketOut(int packetId, byte[] data) {
+            this.packetId = packetId;
+            this.data = data;
+        }
+
+        @Override
+        public void serialize(PacketBuffer output) throws IOException {
+            DataTypeIO.writeVarInt(output, packetId);
+            output.write(data);
+        }
+
+    }
+
+    private static class RawPacketIn extends PacketIn {
+
+        private final int packetId;
+        private final byte[] data;
+
+        private RawPacketIn(int packetId, byte[] data) {
+            this.packetId = packetId;
+            this.data = data;
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class OutboundQueueTest {
+
+    @Test
+    public void testWatermarks() {
+        OutboundQueue queue = new OutboundQueue(100, 40, 1000);
+        queue.add(ByteBuffer.allocate(100));
+        assertFalse(queue.isCongested());
+        queue.add(ByteBuffer.allocate(1));
+        assertTrue(queue.isCongested());
+        queue.written(60);
+        assertTrue(queue.isCongested());
+        queue.written(1);
+        assertFalse(queue.isCongested());
+        assertEquals(40, queue.getQueuedBytes());
+    }
+
+    @Test
+    public void testFull() {
+        OutboundQueue queue = new OutboundQueue(100, 40, 300);
+        queue.add(ByteBuffer.allocate(299));
+        assertFalse(queue.isFull());
+        queue.add(ByteBuffer.allocate(1));
+        assertTrue(queue.isFull());
+        queue.written(1);
+        assertFalse(queue.isFull());
+        queue.clear();
+        assertFalse(queue.isFull());
+        assertEquals(0, queue.getQueuedBytes());
+    }
+
+    @Test
+    public void testMaximumBytes() {
+        assertEquals(Long.MAX_VALUE, new OutboundQueue(100, 40).getMaximumBytes());
+        assertEquals(Long.MAX_VALUE, new OutboundQueue(100, 40, 0).getMaximumBytes());
+        assertEquals(100, new OutboundQueue(100, 40, 50).getMaximumBytes());
+        assertEquals(500, new OutboundQueue(100, 40, 500).getMaximumBytes());
+    }
+
+}
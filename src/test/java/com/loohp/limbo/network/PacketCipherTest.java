@@ -0,0 +1,109 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class PacketCipherTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        SecretKey key = key(1);
+        byte[] plain = data(4096, 2);
+        byte[] data = plain.clone();
+
+        PacketCipher.encryption(key).process(data, 0, data.length);
+        assertFalse(Arrays.equals(plain, data));
+
+        PacketCipher.decryption(key).process(data, 0, data.length);
+        assertArrayEquals(plain, data);
+    }
+
+    @Test
+    public void testStreamingAcrossChunks() throws Exception {
+        SecretKey key = key(3);
+        byte[] plain = data(10000, 4);
+
+        byte[] whole = plain.clone();
+        PacketCipher.encryption(key).process(whole, 0, whole.length);
+
+        byte[] chunked = plain.clone();
+        PacketCipher encryption = PacketCipher.encryption(key);
+        Random random = new Random(5);
+        int offset = 0;
+        while (offset < chunked.length) {
+            int length = Math.min(chunked.length - offset, random.nextInt(300));
+            encryption.process(chunked, offset, length);
+            offset += length;
+        }
+        assertArrayEquals(whole, chunked);
+
+        PacketCipher decryption = PacketCipher.decryption(key);
+        decryption.process(chunked, 0, 17);
+        decryption.process(chunked, 17, chunked.length - 17);
+        assertArrayEquals(plain, chunked);
+    }
+
+    @Test
+    public void testByteBuffers() throws Exception {
+        SecretKey key = key(6);
+        byte[] plain = data(2048, 7);
+
+        byte[] expected = plain.clone();
+        PacketCipher.encryption(key).process(expected, 0, expected.length);
+
+        ByteBuffer heap = ByteBuffer.wrap(plain.clone());
+        heap.position(100);
+        PacketCipher heapCipher = PacketCipher.encryption(key);
+        heapCipher.process(plain.clone(), 0, 100);
+        heapCipher.process(heap);
+        assertArrayEquals(Arrays.copyOfRange(expected, 100, expected.length), Arrays.copyOfRange(heap.array(), 100, plain.length));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(plain.length);
+        direct.put(plain).flip();
+        PacketCipher.encryption(key).process(direct);
+        byte[] encrypted = new byte[plain.length];
+        direct.get(encrypted);
+        assertArrayEquals(expected, encrypted);
+    }
+
+    private static SecretKey key(long seed) throws GeneralSecurityException {
+        return new SecretKeySpec(data(16, seed), "AES");
+    }
+
+    private static byte[] data(int length, long seed) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.loohp.limbo.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ProxyProtocolDecoderTest {
+
+    private static final byte[] V2_SIGNATURE = {0x0D, 0x0A, 0x0D, 0x0A, 0x00, 0x0D, 0x0A, 0x51, 0x55, 0x49, 0x54, 0x0A};
+
+    @Test
+    public void testV1Tcp4() throws IOException {
+        ByteBuffer buffer = buffer(ascii("PROXY TCP4 203.0.113.7 10.0.0.1 51234 25565\r\n"), new byte[] {0x10, 0x00});
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+
+        assertTrue(decoder.decode(buffer));
+        assertEquals(new InetSocketAddress(InetAddress.getByName("203.0.113.7"), 51234), decoder.getSourceAddress());
+        assertEquals(2, buffer.remaining());
+        assertEquals(0x10, buffer.get());
+    }
+
+    @Test
+    public void testV1Tcp6() throws IOException {
+        ByteBuffer buffer = buffer(ascii("PROXY TCP6 2001:db8::1 2001:db8::2 40000 25565\r\n"));
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+
+        assertTrue(decoder.decode(buffer));
+        assertEquals(new InetSocketAddress(InetAddress.getByName("2001:db8::1"), 40000), decoder.getSourceAddress());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testV1Unknown() throws IOException {
+        ByteBuffer buffer = buffer(ascii("PROXY UNKNOWN\r\n"));
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+
+        assertTrue(decoder.decode(buffer));
+        assertNull(decoder.getSourceAddress());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testV1Partial() throws IOException {
+        byte[] header = ascii("PROXY TCP4 203.0.113.7 10.0.0.1 51234 25565\r\n");
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+        for (int length = 1; length < header.length; length++) {
+            ByteBuffer buffer = ByteBuffer.wrap(header, 0, length);
+            assertFalse(decoder.decode(buffer));
+            assertEquals(0, buffer.position());
+        }
+        assertTrue(decoder.decode(ByteBuffer.wrap(header)));
+        assertEquals(51234, decoder.getSourceAddress().getPort());
+    }
+
+    @Test(expected = IOException.class)
+    public void testV1TooLong() throws IOException {
+        byte[] header = new byte[ProxyProtocolDecoder.MAX_V1_HEADER_LENGTH];
+        System.arraycopy(ascii("PROXY "), 0, header, 0, 6);
+        for (int i = 6; i < header.length; i++) {
+            header[i] = 'x';
+        }
+        new ProxyProtocolDecoder().decode(ByteBuffer.wrap(header));
+    }
+
+    @Test(expected = IOException.class)
+    public void testV1AddressFamilyMismatch() throws IOException {
+        new ProxyProtocolDecoder().decode(buffer(ascii("PROXY TCP4 2001:db8::1 10.0.0.1 1 2\r\n")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingHeader() throws IOException {
+        new ProxyProtocolDecoder().decode(buffer(new byte[] {0x10, 0x00, 0x2F}));
+    }
+
+    @Test
+    public void testV2Inet() throws IOException {
+        ByteBuffer address = ByteBuffer.allocate(12);
+        address.put(new byte[] {(byte) 198, 51, 100, 9}).put(new byte[] {10, 0, 0, 1}).putShort((short) 60000).putShort((short) 25565);
+        ByteBuffer buffer = buffer(v2Header(0x21, 0x11, address.array()), new byte[] {0x7F});
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+
+        assertTrue(decoder.decode(buffer));
+        assertEquals(new InetSocketAddress(InetAddress.getByName("198.51.100.9"), 60000), decoder.getSourceAddress());
+        assertEquals(1, buffer.remaining());
+    }
+
+    @Test
+    public void testV2Inet6() throws IOException {
+        ByteBuffer address = ByteBuffer.allocate(36);
+        address.put(InetAddress.getByName("2001:db8::5").getAddress()).put(InetAddress.getByName("2001:db8::6").getAddress()).putShort((short) 1234).putShort((short) 25565);
+        ByteBuffer buffer = buffer(v2Header(0x21, 0x21, address.array()));
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+
+        assertTrue(decoder.decode(buffer));
+        assertEquals(new InetSocketAddress(InetAddress.getByName("2001:db8::5"), 1234), decoder.getSourceAddress());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testV2Local() throws IOException {
+        ByteBuffer buffer = buffer(v2Header(0x20, 0x00, new byte[0]));
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+
+        assertTrue(decoder.decode(buffer));
+        assertNull(decoder.getSourceAddress());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testV2Partial() throws IOException {
+        ByteBuffer address = ByteBuffer.allocate(12);
+        address.put(new byte[] {(byte) 198, 51, 100, 9}).put(new byte[] {10, 0, 0, 1}).putShort((short) 60000).putShort((short) 25565);
+        byte[] header = v2Header(0x21, 0x11, address.array());
+        ProxyProtocolDecoder decoder = new ProxyProtocolDecoder();
+        for (int length = 1; length < header.length; length++) {
+            ByteBuffer buffer = ByteBuffer.wrap(header, 0, length);
+            assertFalse(decoder.decode(buffer));
+            assertEquals(0, buffer.position());
+        }
+        assertTrue(decoder.decode(ByteBuffer.wrap(header)));
+        assertEquals(60000, decoder.getSourceAddress().getPort());
+    }
+
+    @Test(expected = IOException.class)
+    public void testV2BadVersion() throws IOException {
+        new ProxyProtocolDecoder().decode(buffer(v2Header(0x31, 0x11, new byte[12])));
+    }
+
+    @Test(expected = IOException.class)
+    public void testV2BadSignature() throws IOException {
+        byte[] header = v2Header(0x21, 0x11, new byte[12]);
+        header[5] = 0x00;
+        new ProxyProtocolDecoder().decode(buffer(header));
+    }
+
+    private static byte[] v2Header(int versionCommand, int family, byte[] address) {
+        ByteBuffer buffer = ByteBuffer.allocate(16 + address.length);
+        buffer.put(V2_SIGNATURE).put((byte) versionCommand).put((byte) family).putShort((short) address.length).put(address);
+        return buffer.array();
+    }
+
+    private static byte[] ascii(String string) {
+        return string.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static ByteBuffer buffer(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] part : parts) {
+            buffer.put(part);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+}
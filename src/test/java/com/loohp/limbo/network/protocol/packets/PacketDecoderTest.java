@@ -0,0 +1,97 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class PacketDecoderTest {
+	
+	@Test
+	public void testSingleArgumentConstructor() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataOutputStream(bytes).writeLong(0x123456789ABCDEFL);
+		
+		PacketIn packet = PacketDecoder.create(PacketPlayInKeepAlive.class).decode(input(bytes.toByteArray()), 8, 0x12);
+		
+		assertTrue(packet instanceof PacketPlayInKeepAlive);
+		assertEquals(0x123456789ABCDEFL, ((PacketPlayInKeepAlive) packet).getPayload());
+	}
+	
+	@Test
+	public void testSizedConstructor() throws IOException {
+		byte[] data = {1, 2, 3, 4, 5};
+		
+		PacketIn packet = PacketDecoder.create(SizedPacketIn.class).decode(input(data), data.length, 0x34);
+		
+		assertTrue(packet instanceof SizedPacketIn);
+		assertEquals(0x34, ((SizedPacketIn) packet).packetId);
+		assertArrayEquals(data, ((SizedPacketIn) packet).data);
+	}
+	
+	@Test
+	public void testDecoderIsReusable() throws IOException {
+		PacketDecoder decoder = PacketDecoder.create(PacketPlayInKeepAlive.class);
+		for (long i = 0; i < 100; i++) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			new DataOutputStream(bytes).writeLong(i);
+			assertEquals(i, ((PacketPlayInKeepAlive) decoder.decode(input(bytes.toByteArray()), 8, 0)).getPayload());
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoDecodingConstructor() {
+		PacketDecoder.create(UndecodablePacketIn.class);
+	}
+	
+	private static DataInputStream input(byte[] data) {
+		return new DataInputStream(new ByteArrayInputStream(data));
+	}
+	
+	public static class SizedPacketIn extends PacketIn {
+		
+		private final int packetId;
+		private final byte[] data;
+		
+		public SizedPacketIn(DataInputStream in, int size, int packetId) throws IOException {
+			this.packetId = packetId;
+			this.data = new byte[size];
+			in.readFully(data);
+		}
+		
+	}
+	
+	public static class UndecodablePacketIn extends PacketIn {
+		
+		public UndecodablePacketIn(int value) {
+		}
+		
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.network.protocol.packets;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class PacketOutTest {
+	
+	private static final byte[] DATA = {0x10, 1, 2, 3, 4};
+	
+	@Test
+	public void testLegacyPacketIsCopiedIntoBuffer() throws IOException {
+		assertArrayEquals(DATA, serialize(new LegacyPacketOut()));
+	}
+	
+	@Test
+	public void testSerializePacketUsesBuffer() throws IOException {
+		assertArrayEquals(DATA, new BufferPacketOut().serializePacket());
+		assertArrayEquals(DATA, serialize(new BufferPacketOut()));
+	}
+	
+	@Test
+	public void testCachedLegacyPacket() throws IOException {
+		assertArrayEquals(DATA, serialize(new CachedPacketOut(new LegacyPacketOut())));
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void testPacketWithoutSerializer() throws IOException {
+		new EmptyPacketOut().serializePacket();
+	}
+	
+	private static byte[] serialize(PacketOut packet) throws IOException {
+		PacketBuffer buffer = PacketBuffer.allocate();
+		try {
+			packet.serialize(buffer);
+			return buffer.toByteArray();
+		} finally {
+			buffer.release();
+		}
+	}
+	
+	private static class LegacyPacketOut extends PacketOut {
+		
+		@Override
+		public byte[] serializePacket() {
+			return DATA.clone();
+		}
+		
+	}
+	
+	private static class BufferPacketOut extends PacketOut {
+		
+		@Override
+		public void serialize(PacketBuffer output) throws IOException {
+			output.write(DATA);
+		}
+		
+	}
+	
+	private static class EmptyPacketOut extends PacketOut {
+		
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.player;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PlayerInteractManagerTest {
+	
+	@Test
+	public void testDifferenceMatchesSetDifference() throws IOException {
+		Random random = new Random(22);
+		for (int i = 0; i < 2000; i++) {
+			int fromX = random.nextInt(20) - 10;
+			int fromZ = random.nextInt(20) - 10;
+			int toX = fromX + random.nextInt(12);
+			int toZ = fromZ + random.nextInt(12);
+			int excludeFromX = random.nextInt(20) - 10;
+			int excludeFromZ = random.nextInt(20) - 10;
+			int excludeToX = excludeFromX + random.nextInt(12);
+			int excludeToZ = excludeFromZ + random.nextInt(12);
+			
+			Set<Long> expected = rectangle(fromX, fromZ, toX, toZ);
+			expected.removeAll(rectangle(excludeFromX, excludeFromZ, excludeToX, excludeToZ));
+			
+			assertEquals(expected, difference(fromX, fromZ, toX, toZ, excludeFromX, excludeFromZ, excludeToX, excludeToZ));
+		}
+	}
+	
+	@Test
+	public void testDifferenceVisitsEachChunkOnce() throws IOException {
+		int[] count = new int[1];
+		Set<Long> visited = new HashSet<>();
+		PlayerInteractManager.forEachDifference(-5, -5, 6, 6, -2, 3, 2, 9, (x, z) -> {
+			count[0]++;
+			assertTrue(visited.add(key(x, z)));
+		});
+		assertEquals(visited.size(), count[0]);
+		assertEquals(11 * 11 - 4 * 3, count[0]);
+	}
+	
+	@Test
+	public void testEmptyExclusion() throws IOException {
+		assertEquals(rectangle(-3, -3, 4, 4), difference(-3, -3, 4, 4, 0, 0, 0, 0));
+	}
+	
+	@Test
+	public void testViewMovementKeepsLoadedSetInSync() throws IOException {
+		Random random = new Random(7);
+		int viewX = 0;
+		int viewZ = 0;
+		int viewDistance = 4;
+		Set<Long> loaded = rectangle(viewX - viewDistance, viewZ - viewDistance, viewX + viewDistance, viewZ + viewDistance);
+		for (int i = 0; i < 500; i++) {
+			int x = viewX + random.nextInt(11) - 5;
+			int z = viewZ + random.nextInt(11) - 5;
+			int distance = 2 + random.nextInt(6);
+			
+			Set<Long> unloaded = difference(viewX - viewDistance, viewZ - viewDistance, viewX + viewDistance, viewZ + viewDistance, x - distance, z - distance, x + distance, z + distance);
+			Set<Long> added = difference(x - distance, z - distance, x + distance, z + distance, viewX - viewDistance, viewZ - viewDistance, viewX + viewDistance, viewZ + viewDistance);
+			
+			assertTrue(loaded.containsAll(unloaded));
+			loaded.removeAll(unloaded);
+			for (long key : added) {
+				assertTrue(loaded.add(key));
+			}
+			
+			viewX = x;
+			viewZ = z;
+			viewDistance = distance;
+			assertEquals(rectangle(viewX - viewDistance, viewZ - viewDistance, viewX + viewDistance, viewZ + viewDistance), loaded);
+		}
+	}
+	
+	private static Set<Long> difference(int fromX, int fromZ, int toX, int toZ, int excludeFromX, int excludeFromZ, int excludeToX, int excludeToZ) throws IOException {
+		Set<Long> result = new HashSet<>();
+		PlayerInteractManager.forEachDifference(fromX, fromZ, toX, toZ, excludeFromX, excludeFromZ, excludeToX, excludeToZ, (x, z) -> result.add(key(x, z)));
+		return result;
+	}
+	
+	private static Set<Long> rectangle(int fromX, int fromZ, int toX, int toZ) {
+		Set<Long> result = new HashSet<>();
+		for (int x = fromX; x < toX; x++) {
+			for (int z = fromZ; z < toZ; z++) {
+				result.add(key(x, z));
+			}
+		}
+		return result;
+	}
+	
+	private static long key(int x, int z) {
+		return ((long) x << 32) | (z & 0xFFFFFFFFL);
+	}
+
+}
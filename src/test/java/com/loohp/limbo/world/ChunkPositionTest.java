@@ -0,0 +1,95 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.world;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.querz.nbt.tag.CompoundTag;
+
+public class ChunkPositionTest {
+	
+	@Test
+	public void testPackedKeyRoundTrip() {
+		int[] values = {0, 1, -1, 15, -16, 1875000, -1875000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+		for (int x : values) {
+			for (int z : values) {
+				long key = ChunkPosition.toLong(x, z);
+				assertEquals(x, ChunkPosition.getChunkX(key));
+				assertEquals(z, ChunkPosition.getChunkZ(key));
+			}
+		}
+	}
+	
+	@Test
+	public void testPackedKeysAndHashesDoNotCollide() {
+		World world = new World("test", 15, 15, Environment.NORMAL);
+		Set<Long> keys = new HashSet<>();
+		Set<Integer> hashes = new HashSet<>();
+		int count = 0;
+		for (int x = -64; x <= 64; x++) {
+			for (int z = -64; z <= 64; z++) {
+				ChunkPosition position = new ChunkPosition(world, x, z);
+				keys.add(position.toLong());
+				hashes.add(position.hashCode());
+				count++;
+			}
+		}
+		assertEquals(count, keys.size());
+		assertEquals(count, hashes.size());
+	}
+	
+	@Test
+	public void testEquality() {
+		World world = new World("test", 15, 15, Environment.NORMAL);
+		World sameName = new World("test", 15, 15, Environment.NORMAL);
+		World otherEnvironment = new World("test", 15, 15, Environment.NETHER);
+		
+		assertEquals(new ChunkPosition(world, 3, -7), new ChunkPosition(world, 3, -7));
+		assertEquals(new ChunkPosition(world, 3, -7).hashCode(), new ChunkPosition(world, 3, -7).hashCode());
+		assertEquals(new ChunkPosition(world, 3, -7), new ChunkPosition(sameName, 3, -7));
+		assertNotEquals(new ChunkPosition(world, 3, -7), new ChunkPosition(world, -7, 3));
+		assertNotEquals(new ChunkPosition(world, 3, -7), new ChunkPosition(otherEnvironment, 3, -7));
+	}
+	
+	@Test
+	public void testWorldHashStableAcrossBlockChanges() {
+		World world = new World("test", 15, 15, Environment.NORMAL);
+		Set<ChunkPosition> positions = new HashSet<>();
+		positions.add(new ChunkPosition(world, 0, 0));
+		int hash = world.hashCode();
+		
+		CompoundTag tag = new CompoundTag();
+		tag.putString("Name", "minecraft:stone");
+		world.setBlock(1, 2, 3, new BlockState(tag));
+		
+		assertEquals(hash, world.hashCode());
+		assertTrue(positions.contains(new ChunkPosition(world, 0, 0)));
+		assertFalse(positions.contains(new ChunkPosition(world, 0, 1)));
+	}
+
+}
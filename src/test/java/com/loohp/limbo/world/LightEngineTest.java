@@ -0,0 +1,99 @@
+/*
+ * This file is part of Limbo.
+ *
+ * Copyright (C) 2022. LoohpJames <jamesloohp@gmail.com>
+ * Copyright (C) 2022. Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.loohp.limbo.world;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.querz.nbt.tag.CompoundTag;
+
+public class LightEngineTest {
+	
+	private static final String[] BLOCKS = {"minecraft:air", "minecraft:stone", "minecraft:glowstone", "minecraft:soul_lantern"};
+	
+	@Test
+	public void testLightSourceAboveFirstSection() {
+		World world = new World("test", 47, 47, Environment.NORMAL);
+		world.setBlock(20, 40, 20, block("minecraft:glowstone"));
+		
+		assertEquals("minecraft:glowstone", world.getBlock(20, 40, 20).getType().toString());
+		assertEquals("minecraft:air", world.getBlock(20, 8, 20).getType().toString());
+		LightEngineBlock engine = world.getLightEngineBlock();
+		assertEquals(15, engine.getLight(20, 40, 20));
+		assertEquals(14, engine.getLight(20, 41, 20));
+		assertEquals(10, engine.getLight(23, 38, 20));
+		assertEquals(0, engine.getLight(20, 24, 20));
+		
+		world.setBlock(20, 40, 20, block("minecraft:air"));
+		assertEquals(0, engine.getLight(20, 40, 20));
+		assertEquals(0, engine.getLight(23, 38, 20));
+	}
+	
+	@Test
+	public void testSkyColumnBlockedAboveFirstSection() {
+		World world = new World("test", 47, 47, Environment.NORMAL);
+		LightEngineSky engine = world.getLightEngineSky();
+		assertEquals(15, engine.getLight(10, 20, 10));
+		
+		world.setBlock(10, 30, 10, block("minecraft:stone"));
+		assertEquals(15, engine.getLight(10, 31, 10));
+		assertEquals(14, engine.getLight(10, 29, 10));
+		assertEquals(15, engine.getLight(11, 29, 10));
+		
+		world.setBlock(10, 30, 10, block("minecraft:air"));
+		assertEquals(15, engine.getLight(10, 29, 10));
+	}
+	
+	@Test
+	public void testIncrementalRelightMatchesFullRelight() {
+		World world = new World("test", 40, 35, Environment.NORMAL);
+		Random random = new Random(1);
+		for (int i = 0; i < 2000; i++) {
+			int x = random.nextInt(40);
+			int y = random.nextInt(64);
+			int z = random.nextInt(35);
+			world.setBlock(x, y, z, block(BLOCKS[random.nextInt(BLOCKS.length)]));
+			if (i % 250 == 249) {
+				assertSameLight(world.getLightEngineBlock(), new LightEngineBlock(world));
+				assertSameLight(world.getLightEngineSky(), new LightEngineSky(world));
+			}
+		}
+	}
+	
+	private static void assertSameLight(LightEngine incremental, LightEngine full) {
+		for (int x = 0; x < 48; x++) {
+			for (int y = -16; y < 272; y++) {
+				for (int z = 0; z < 48; z++) {
+					assertEquals("light at " + x + ", " + y + ", " + z, full.getLight(x, y, z), incremental.getLight(x, y, z));
+				}
+			}
+		}
+	}
+	
+	private static BlockState block(String type) {
+		CompoundTag tag = new CompoundTag();
+		tag.putString("Name", type);
+		return new BlockState(tag);
+	}
+
+}